@@ -0,0 +1,83 @@
+import java.util.SplittableRandom;
+
+/**
+ *  Access patterns shared by the benchmarks.
+ *  <ul>
+ *  <li><tt>random</tt>: uniformly random pairs, or a random site order;</li>
+ *  <li><tt>rowSweep</tt>: neighbours in row-major order, as a grid filled
+ *      row by row produces them;</li>
+ *  <li><tt>tallTrees</tt>: unions of equal-sized trees in binomial order,
+ *      which gives the tallest trees weighted quick-union allows, or a grid
+ *      filled column by column.</li>
+ *  </ul>
+ */
+final class BenchmarkPatterns {
+    static final String RANDOM = "random";
+    static final String ROW_SWEEP = "rowSweep";
+    static final String TALL_TREES = "tallTrees";
+
+    private BenchmarkPatterns() {
+    }
+
+    // pairs of sites to union, p[k] with q[k], for n sites
+    static int[][] unions(String pattern, int n, long seed) {
+        int[] p = new int[n - 1];
+        int[] q = new int[n - 1];
+        if (RANDOM.equals(pattern)) {
+            SplittableRandom random = new SplittableRandom(seed);
+            for (int k = 0; k < p.length; ++k) {
+                p[k] = random.nextInt(n);
+                q[k] = random.nextInt(n);
+            }
+        } else if (ROW_SWEEP.equals(pattern)) {
+            for (int k = 0; k < p.length; ++k) {
+                p[k] = k;
+                q[k] = k + 1;
+            }
+        } else if (TALL_TREES.equals(pattern)) {
+            int k = 0;
+            for (int stride = 1; stride < n; stride *= 2) {
+                for (int i = 0; i + stride < n; i += 2 * stride) {
+                    p[k] = i;
+                    q[k] = i + stride;
+                    ++k;
+                }
+            }
+        } else {
+            throw new IllegalArgumentException(pattern);
+        }
+        return new int[][] {p, q};
+    }
+
+    // order in which to open the sites of an N-by-N grid, as 0-based indices
+    static int[] sites(String pattern, int N, long seed) {
+        int[] order = new int[N * N];
+        if (RANDOM.equals(pattern)) {
+            SitePermutation permutation = new SitePermutation(order.length, new SplittableRandom(seed));
+            for (int k = 0; k < order.length; ++k) {
+                order[k] = permutation.next();
+            }
+        } else if (ROW_SWEEP.equals(pattern)) {
+            for (int k = 0; k < order.length; ++k) {
+                order[k] = k;
+            }
+        } else if (TALL_TREES.equals(pattern)) {
+            for (int k = 0; k < order.length; ++k) {
+                order[k] = (k % N) * N + k / N;
+            }
+        } else {
+            throw new IllegalArgumentException(pattern);
+        }
+        return order;
+    }
+
+    // uniformly random sites to query
+    static int[] queries(int count, int n, long seed) {
+        int[] queries = new int[count];
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int k = 0; k < count; ++k) {
+            queries[k] = random.nextInt(n);
+        }
+        return queries;
+    }
+}
@@ -0,0 +1,27 @@
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.profile.LinuxPerfNormProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ *  Runs the benchmarks whose names match the optional regular expression,
+ *  all of them by default, with the GC profiler for allocation rates. A
+ *  second argument <tt>perfnorm</tt> adds the Linux perf profiler, for cache
+ *  misses and other hardware counters per operation.
+ *  <p>
+ *  Throughput and sample-time modes are set on the benchmarks themselves;
+ *  sample time reports the latency percentiles.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : "Benchmark";
+        OptionsBuilder options = new OptionsBuilder();
+        options.include(include).addProfiler(GCProfiler.class);
+        if (args.length > 1 && args[1].equals("perfnorm")) {
+            options.addProfiler(LinuxPerfNormProfiler.class);
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,58 @@
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ *  open of {@link Percolation} on grids far larger than the caches, with
+ *  each {@link SiteLayout}.
+ *  <p>
+ *  One invocation opens the first 60% of a random site order on a fresh
+ *  grid, as a trial near the threshold does, and takes seconds at these
+ *  sizes, hence single-shot time. Run it with the Linux perf profiler,
+ *  <tt>BenchmarkRunner LayoutBenchmark perfnorm</tt>, to get cache and TLB
+ *  misses per invocation next to the time. N = 16384 needs about 4 GB of
+ *  heap, so the fork gets 6.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx6g"})
+public class LayoutBenchmark {
+
+    @Param({"4096", "8192", "16384"})
+    public int N;
+
+    @Param({"ROW_MAJOR", "TILED", "MORTON"})
+    public SiteLayout layout;
+
+    private int[] order;
+    private int opened;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        order = BenchmarkPatterns.sites(BenchmarkPatterns.RANDOM, N, 1);
+        opened = order.length * 6 / 10;
+    }
+
+    @Benchmark
+    public Percolation open() {
+        Percolation percolation = new Percolation(N, UnionFindStrategy.PATH_HALVING, layout);
+        for (int k = 0; k < opened; ++k) {
+            percolation.openIndex(order[k]);
+        }
+        return percolation;
+    }
+}
@@ -0,0 +1,95 @@
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ *  open, isFull and percolates of {@link Percolation}.
+ *  <p>
+ *  <tt>open</tt> opens the first 60% of the pattern's site order on a fresh
+ *  grid, about where a random grid percolates, and is scored per grid;
+ *  <tt>isFull</tt> and <tt>percolates</tt> query such a grid built once per
+ *  iteration and are scored per query.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PercolationBenchmark {
+    private static final int QUERIES = 1 << 16;
+
+    @Param({"100", "1000", "4000"})
+    public int N;
+
+    @Param({"random", "rowSweep", "tallTrees"})
+    public String pattern;
+
+    @Param({"WEIGHTED_QUICK_UNION", "PATH_COMPRESSION", "PATH_HALVING",
+            "PATH_SPLITTING", "UNION_BY_RANK", "PACKED"})
+    public UnionFindStrategy strategy;
+
+    private int[] order;
+    private int opened;
+    private int[] rows;
+    private int[] cols;
+    private Percolation built;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        order = BenchmarkPatterns.sites(pattern, N, 1);
+        opened = order.length * 6 / 10;
+        int[] queries = BenchmarkPatterns.queries(QUERIES, N * N, 2);
+        rows = new int[QUERIES];
+        cols = new int[QUERIES];
+        for (int k = 0; k < QUERIES; ++k) {
+            rows[k] = queries[k] / N + 1;
+            cols[k] = queries[k] % N + 1;
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void build() {
+        built = openAll();
+    }
+
+    @Benchmark
+    public Percolation open() {
+        return openAll();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public void isFull(Blackhole bh) {
+        for (int k = 0; k < QUERIES; ++k) {
+            bh.consume(built.isFull(rows[k], cols[k]));
+        }
+    }
+
+    @Benchmark
+    public boolean percolates() {
+        return built.percolates();
+    }
+
+    private Percolation openAll() {
+        Percolation percolation = new Percolation(N, strategy);
+        for (int k = 0; k < opened; ++k) {
+            int site = order[k];
+            percolation.open(site / N + 1, site % N + 1);
+        }
+        return percolation;
+    }
+}
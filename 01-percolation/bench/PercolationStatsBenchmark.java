@@ -0,0 +1,38 @@
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ *  One complete Monte Carlo trial of {@link PercolationStats}: site order,
+ *  fresh grid and opening until it percolates. Each invocation is a new seed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PercolationStatsBenchmark {
+
+    @Param({"100", "1000", "2000"})
+    public int N;
+
+    @Param({"WEIGHTED_QUICK_UNION", "PATH_HALVING", "UNION_BY_RANK", "PACKED"})
+    public UnionFindStrategy strategy;
+
+    private long seed;
+
+    @Benchmark
+    public double trial() {
+        return new PercolationStats(N, 1, strategy, ++seed, 1).mean();
+    }
+}
@@ -0,0 +1,99 @@
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ *  union, find and connected of every {@link UnionFindStrategy}, which covers
+ *  <tt>WeightedQuickUnionUF</tt> and <tt>WeightedUnionFind</tt>. Both are
+ *  weighted quick-union without compression and should score alike on every
+ *  pattern; a gap between them points at the weighting, not the design.
+ *  <p>
+ *  <tt>union</tt> builds a fresh structure from the n-1 unions of the pattern
+ *  and is scored per build; <tt>find</tt> and <tt>connected</tt> query a
+ *  structure built once per iteration, so path compression gets to pay off as
+ *  it would in a long-running client, and are scored per query.
+ *  <p>
+ *  The GC profiler's <tt>gc.alloc.rate.norm</tt> for <tt>union</tt> is the
+ *  footprint of one structure: 4 bytes per site for <tt>PACKED</tt> against 8
+ *  for <tt>WEIGHTED_QUICK_UNION</tt>. Cache misses per operation come with the
+ *  <tt>perfnorm</tt> profiler, see {@link BenchmarkRunner}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UnionFindBenchmark {
+    private static final int QUERIES = 1 << 16;
+
+    @Param({"1024", "1048576", "16777216"})
+    public int n;
+
+    @Param({"random", "rowSweep", "tallTrees"})
+    public String pattern;
+
+    @Param({"WEIGHTED_QUICK_UNION", "WEIGHTED_UNION_FIND", "PATH_COMPRESSION",
+            "PATH_HALVING", "PATH_SPLITTING", "UNION_BY_RANK", "PACKED"})
+    public UnionFindStrategy strategy;
+
+    private int[] p;
+    private int[] q;
+    private int[] queries;
+    private UnionFind built;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        int[][] pairs = BenchmarkPatterns.unions(pattern, n, 1);
+        p = pairs[0];
+        q = pairs[1];
+        queries = BenchmarkPatterns.queries(QUERIES, n, 2);
+    }
+
+    @Setup(Level.Iteration)
+    public void build() {
+        built = buildAll();
+    }
+
+    @Benchmark
+    public UnionFind union() {
+        return buildAll();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public void find(Blackhole bh) {
+        for (int k = 0; k < QUERIES; ++k) {
+            bh.consume(built.find(queries[k]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES - 1)
+    public void connected(Blackhole bh) {
+        for (int k = 1; k < QUERIES; ++k) {
+            bh.consume(built.connected(queries[k - 1], queries[k]));
+        }
+    }
+
+    private UnionFind buildAll() {
+        UnionFind uf = strategy.create(n);
+        for (int k = 0; k < p.length; ++k) {
+            uf.union(p[k], q[k]);
+        }
+        return uf;
+    }
+}
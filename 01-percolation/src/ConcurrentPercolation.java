@@ -0,0 +1,122 @@
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ *  Thread-safe {@link Percolation}: any number of threads may open sites of
+ *  the same grid while others query it, without locks.
+ *  <p>
+ *  Sites are joined in a {@link ConcurrentUnionFind}, and whether a component
+ *  touches the top or the bottom row is kept in flags of its root. Flags only
+ *  ever get added: a thread ORs them into the root, and if that root has been
+ *  linked below another one meanwhile, it moves them up to the new root.
+ *  The thread that links a root does the same with the flags of that root.
+ *  <p>
+ *  Once all calls to <tt>open</tt> have returned, queries answer exactly as
+ *  for a sequential <tt>Percolation</tt> that opened the same sites. While
+ *  opens are in progress <tt>isFull</tt> may lag behind the last merge.
+ */
+public class ConcurrentPercolation {
+    private static final int TOP = 1;
+    private static final int BOTTOM = 2;
+
+    private final int N;
+    private final AtomicLongArray sites;
+    private final AtomicIntegerArray touches;
+    private final ConcurrentUnionFind clusters;
+    private volatile boolean percolates;
+
+    public ConcurrentPercolation(int n) {
+        N = n;
+        sites = new AtomicLongArray((N * N + 63) >>> 6);
+        touches = new AtomicIntegerArray(N * N);
+        clusters = new ConcurrentUnionFind(N * N);
+    }
+
+    public void open(int i, int j) {
+        verifyIndex(i, j);
+        int index = getIndex(i, j);
+
+        int flags = 0;
+        if (i == 1) flags |= TOP;
+        if (i == N) flags |= BOTTOM;
+        // flags go in first: nobody joins a site before it is seen open
+        orFlags(index, flags);
+        if (!markOpen(index)) return;
+        if (flags == (TOP | BOTTOM)) percolates = true;
+
+        if (i > 1) join(index, index - N);
+        if (i < N) join(index, index + N);
+        if (j > 1) join(index, index - 1);
+        if (j < N) join(index, index + 1);
+    }
+
+    public boolean isOpen(int i, int j) {
+        verifyIndex(i, j);
+        return isOpen(getIndex(i, j));
+    }
+
+    public boolean isFull(int i, int j) {
+        verifyIndex(i, j);
+        int index = getIndex(i, j);
+        return isOpen(index) && (touches.get(clusters.find(index)) & TOP) != 0;
+    }
+
+    public boolean percolates() {
+        return percolates;
+    }
+
+    private void join(int index, int n) {
+        if (!isOpen(n)) return;
+        int child = clusters.link(n, index);
+        if (child != -1) {
+            addFlags(child, touches.get(child));
+        }
+    }
+
+    // moves flags up to the current root of site, until they stick to a
+    // root that is still a root after the flags were added
+    private void addFlags(int site, int flags) {
+        while (true) {
+            int root = clusters.find(site);
+            int merged = orFlags(root, flags);
+            if (merged == (TOP | BOTTOM)) percolates = true;
+            if (clusters.isRoot(root)) return;
+            site = root;
+        }
+    }
+
+    private int orFlags(int index, int flags) {
+        while (true) {
+            int current = touches.get(index);
+            int merged = current | flags;
+            if (merged == current || touches.compareAndSet(index, current, merged)) {
+                return merged;
+            }
+        }
+    }
+
+    // sets the open bit, returns false if another thread got there first
+    private boolean markOpen(int index) {
+        int w = index >>> 6;
+        long mask = 1L << index;
+        while (true) {
+            long word = sites.get(w);
+            if ((word & mask) != 0) return false;
+            if (sites.compareAndSet(w, word, word | mask)) return true;
+        }
+    }
+
+    private boolean isOpen(int index) {
+        return (sites.get(index >>> 6) & (1L << index)) != 0;
+    }
+
+    private int getIndex(int i, int j) {
+        return (i - 1) * N + (j - 1);
+    }
+
+    private void verifyIndex(int i, int j) {
+        if (i < 1 || i > N || j < 1 || j > N) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+}
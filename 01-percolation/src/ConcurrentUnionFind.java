@@ -0,0 +1,84 @@
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ *  Lock-free union-find that any number of threads may use at once, after
+ *  Jayanti and Tarjan's concurrent disjoint set union.
+ *  <p>
+ *  Roots are linked with a single compare-and-set of the parent entry, and
+ *  <tt>find</tt> splits the path with compare-and-set as well, without ever
+ *  waiting on another thread. Instead of by size or rank, roots are linked by
+ *  a fixed pseudo-random priority of their index, which keeps the expected
+ *  tree height logarithmic without any extra per-root state to update.
+ */
+public class ConcurrentUnionFind {
+    private final AtomicIntegerArray parent;
+    private final AtomicInteger count;
+
+    public ConcurrentUnionFind(int N) {
+        parent = new AtomicIntegerArray(N);
+        for (int i = 0; i < N; i++) {
+            parent.set(i, i);
+        }
+        count = new AtomicInteger(N);
+    }
+
+    public int count() {
+        return count.get();
+    }
+
+    public int find(int p) {
+        while (true) {
+            int up = parent.get(p);
+            if (up == p) return p;
+            int grand = parent.get(up);
+            if (grand != up) parent.compareAndSet(p, up, grand);
+            p = up;
+        }
+    }
+
+    // is p a root right now
+    public boolean isRoot(int p) {
+        return parent.get(p) == p;
+    }
+
+    public boolean connected(int p, int q) {
+        while (true) {
+            p = find(p);
+            q = find(q);
+            if (p == q) return true;
+            // p is still a root, so they were not connected when q was found
+            if (isRoot(p)) return false;
+        }
+    }
+
+    public boolean union(int p, int q) {
+        return link(p, q) != -1;
+    }
+
+    // merges the components of p and q, returns the root that was made a
+    // child of the other one, or -1 if they were already connected
+    public int link(int p, int q) {
+        while (true) {
+            p = find(p);
+            q = find(q);
+            if (p == q) return -1;
+            if (priority(p) > priority(q)) {
+                int tmp = p;
+                p = q;
+                q = tmp;
+            }
+            if (parent.compareAndSet(p, p, q)) {
+                count.decrementAndGet();
+                return p;
+            }
+        }
+    }
+
+    // bijective integer hash, so no two sites share a priority
+    private static int priority(int p) {
+        p = (p ^ (p >>> 16)) * 0x85EBCA6B;
+        p = (p ^ (p >>> 13)) * 0xC2B2AE35;
+        return p ^ (p >>> 16);
+    }
+}
@@ -0,0 +1,221 @@
+import java.util.SplittableRandom;
+
+/**
+ *  Percolation on any {@link Lattice}, with the model of {@link Percolation}:
+ *  one union-find over the nodes plus per-root flags for touching a source
+ *  and a sink, so full means connected to a source and the graph percolates
+ *  once a source and a sink are connected.
+ *  <p>
+ *  In site mode nodes start blocked and <tt>open</tt> opens them; two open
+ *  nodes are connected if they are neighbours. In bond mode every node is
+ *  open and <tt>openBond</tt> opens edges, by their position in
+ *  <tt>targets</tt>; only open edges connect. An edge listed at both of its
+ *  ends is one bond: either entry opens it, <tt>isBondOpen</tt> answers the
+ *  same for both and <tt>numberOfOpened</tt> counts it once.
+ */
+public class GraphPercolation {
+    public enum Mode { SITE, BOND }
+
+    private static final byte SOURCE = 1;
+    private static final byte SINK = 2;
+
+    private final Lattice lattice;
+    private final Mode mode;
+    private final SiteBitSet opened;   // open nodes, or open bonds in bond mode
+    private final int[] canonical;     // bond mode: entry that stands for bond k's edge
+    private final int edges;           // bond mode: number of bonds, each edge once
+    private final UnionFind clusters;
+    private final byte[] touches;      // source and sink flags of each root
+    private boolean percolates;
+
+    public GraphPercolation(Lattice lattice, Mode mode) {
+        this(lattice, mode, UnionFindStrategy.WEIGHTED_QUICK_UNION);
+    }
+
+    public GraphPercolation(Lattice lattice, Mode mode, UnionFindStrategy strategy) {
+        this.lattice = lattice;
+        this.mode = mode;
+        int n = lattice.size();
+        opened = new SiteBitSet(mode == Mode.SITE ? n : lattice.bonds());
+        clusters = strategy.create(n);
+        // every node starts as its own root, with its own flags
+        touches = new byte[n];
+        for (int v : lattice.sources) touches[v] |= SOURCE;
+        for (int v : lattice.sinks)   touches[v] |= SINK;
+        if (mode == Mode.BOND) {
+            for (int v = 0; v < n; ++v) {
+                if (touches[v] == (SOURCE | SINK)) percolates = true;
+            }
+        }
+        canonical = mode == Mode.BOND ? canonicalBonds(lattice) : null;
+        int count = 0;
+        if (mode == Mode.BOND) {
+            for (int k = 0; k < canonical.length; ++k) {
+                if (canonical[k] == k) ++count;
+            }
+        }
+        edges = count;
+    }
+
+    // for every entry of targets, the entry of the same edge at its end with
+    // the smaller index, which is the entry itself if the edge is listed at
+    // one end only
+    private static int[] canonicalBonds(Lattice lattice) {
+        int[] offsets = lattice.offsets;
+        int[] targets = lattice.targets;
+        int[] canonical = new int[targets.length];
+        for (int v = 0; v < lattice.size(); ++v) {
+            for (int k = offsets[v]; k < offsets[v + 1]; ++k) {
+                int w = targets[k];
+                canonical[k] = k;
+                if (w >= v) continue;
+                for (int b = offsets[w]; b < offsets[w + 1]; ++b) {
+                    if (targets[b] == v) {
+                        canonical[k] = b;
+                        break;
+                    }
+                }
+            }
+        }
+        return canonical;
+    }
+
+    public Mode mode() {
+        return mode;
+    }
+
+    public Lattice lattice() {
+        return lattice;
+    }
+
+    // opens node v; site mode only
+    public void open(int v) {
+        if (mode != Mode.SITE) {
+            throw new UnsupportedOperationException("nodes are always open in bond mode");
+        }
+        verifyNode(v);
+        if (!opened.set(v)) return;
+
+        int flags = touches[v];
+        int[] targets = lattice.targets;
+        for (int k = lattice.offsets[v], end = lattice.offsets[v + 1]; k < end; ++k) {
+            int w = targets[k];
+            if (opened.get(w)) flags |= join(v, w);
+        }
+        touches[clusters.find(v)] = (byte) flags;
+        if (flags == (SOURCE | SINK)) {
+            percolates = true;
+        }
+    }
+
+    // opens bond k, between lattice.tail(k) and targets[k], and so its
+    // entry at the other end too; bond mode only
+    public void openBond(int k) {
+        if (mode != Mode.BOND) {
+            throw new UnsupportedOperationException("bonds are always open in site mode");
+        }
+        int v = lattice.tail(k);
+        if (!opened.set(canonical[k])) return;
+
+        int flags = touches[clusters.find(v)] | join(v, lattice.targets[k]);
+        touches[clusters.find(v)] = (byte) flags;
+        if (flags == (SOURCE | SINK)) {
+            percolates = true;
+        }
+    }
+
+    public boolean isOpen(int v) {
+        verifyNode(v);
+        return mode == Mode.BOND || opened.get(v);
+    }
+
+    public boolean isBondOpen(int k) {
+        if (k < 0 || k >= lattice.bonds()) {
+            throw new IndexOutOfBoundsException();
+        }
+        return mode == Mode.SITE ? opened.get(lattice.tail(k)) && opened.get(lattice.targets[k])
+                                 : opened.get(canonical[k]);
+    }
+
+    // is node v open and connected to a source?
+    public boolean isFull(int v) {
+        return isOpen(v) && (touches[clusters.find(v)] & SOURCE) != 0;
+    }
+
+    public boolean connected(int v, int w) {
+        return isOpen(v) && isOpen(w) && clusters.connected(v, w);
+    }
+
+    public boolean percolates() {
+        return percolates;
+    }
+
+    // number of open nodes in site mode, of open bonds in bond mode, each
+    // edge counted once
+    public int numberOfOpened() {
+        return opened.cardinality();
+    }
+
+    // number of nodes in site mode, of bonds in bond mode, each edge counted
+    // once: what numberOfOpened reaches with everything open
+    public int numberOfCandidates() {
+        return mode == Mode.SITE ? lattice.size() : edges;
+    }
+
+    // unions w into v's component, returns w's flags
+    private int join(int v, int w) {
+        int wRoot = clusters.find(w);
+        int flags = touches[wRoot];
+        clusters.union(wRoot, v);
+        return flags;
+    }
+
+    private void verifyNode(int v) {
+        if (v < 0 || v >= lattice.size()) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    // fraction of nodes or edges opened in random order until the graph
+    // percolates; edges are drawn by their canonical entries, so each edge
+    // listed at both ends is drawn once
+    public static double threshold(Lattice lattice, Mode mode, UnionFindStrategy strategy,
+                                   SplittableRandom random) {
+        GraphPercolation perc = new GraphPercolation(lattice, mode, strategy);
+        int n = mode == Mode.SITE ? lattice.size() : lattice.bonds();
+        SitePermutation order = new SitePermutation(n, random);
+        while (!perc.percolates() && order.hasNext()) {
+            int k = order.next();
+            if (mode == Mode.SITE) {
+                perc.open(k);
+            } else if (perc.canonical[k] == k) {
+                perc.openBond(k);
+            }
+        }
+        return (double) perc.numberOfOpened() / perc.numberOfCandidates();
+    }
+
+    // T threshold estimates on a lattice: square, triangular, hexagonal or cubic
+    public static void main(String[] args) {
+        if (args.length != 4) {
+            StdOut.printf("Need 4 arguments: lattice (square, triangular, hexagonal, cubic), N, site or bond, and T%n");
+            return;
+        }
+        int N = Integer.parseInt(args[1]);
+        Lattice lattice;
+        if      (args[0].equals("square"))     lattice = Lattice.square(N);
+        else if (args[0].equals("triangular")) lattice = Lattice.triangular(N);
+        else if (args[0].equals("hexagonal"))  lattice = Lattice.hexagonal(N);
+        else if (args[0].equals("cubic"))      lattice = Lattice.cubic(N);
+        else throw new IllegalArgumentException("unknown lattice " + args[0]);
+        Mode mode = Mode.valueOf(args[2].toUpperCase());
+        int T = Integer.parseInt(args[3]);
+
+        SplittableRandom random = new SplittableRandom();
+        RunningStats stats = new RunningStats();
+        for (int t = 0; t < T; ++t) {
+            stats.add(threshold(lattice, mode, UnionFindStrategy.PATH_HALVING, random.split()));
+        }
+        StdOut.printf("%s %s N = %d, T = %d: %s%n", args[0], mode, N, T, stats);
+    }
+}
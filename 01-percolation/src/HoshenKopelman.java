@@ -0,0 +1,287 @@
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.TreeMap;
+
+/**
+ *  Clusters of a complete N-by-N grid of open and blocked sites, labeled in
+ *  one raster scan by the Hoshen-Kopelman algorithm: whether the grid
+ *  percolates, how many clusters of each size there are and which of them
+ *  are full.
+ *  <p>
+ *  Only two rows of labels are kept. The union-find holds the clusters
+ *  reaching the previous row and the runs of open sites of the current one,
+ *  2N nodes at most. Once a row is done, clusters that don't reach it are
+ *  finished and counted, and the others are renumbered from 0 for the next
+ *  row. Besides the grid itself this takes O(N) memory, against a full
+ *  {@link Percolation} over N*N sites, and reads every site once.
+ *  <p>
+ *  Sites are 0-based row-major indices (i - 1) * N + (j - 1), as in
+ *  {@link Percolation#openAll(int[])}.
+ */
+public class HoshenKopelman {
+    // flags of a cluster, kept at its root
+    private static final byte TOP = 1;
+    private static final byte BOTTOM = 2;
+
+    private final int N;
+    private final SiteBitSet bits;     // the grid, one of bits or open
+    private final boolean[] open;
+
+    // the two-row union-find: nodes 0..N-1 for clusters reaching the
+    // previous row, N..2N-1 for runs of the current row
+    private final int[] parent;
+    private final int[] size;
+    private final byte[] flags;
+
+    private boolean percolates;
+    private int openSites;
+    private int clusters;
+    private int largest;
+    private int fullSites;
+    private final int[] smallClusters; // smallClusters[s] = clusters of size s <= N
+    private final TreeMap<Integer, Integer> largeClusters = new TreeMap<Integer, Integer>();
+    private int[] fullClusters = new int[4];
+    private int fullCount;
+
+    // grid of the sites set in open, which must have N*N bits
+    public HoshenKopelman(SiteBitSet open, int N) {
+        this(N, open, null, open.size());
+    }
+
+    // grid of the sites k with open[k] true, for k < N*N
+    public HoshenKopelman(boolean[] open, int N) {
+        this(N, null, open, open.length);
+    }
+
+    private HoshenKopelman(int N, SiteBitSet bits, boolean[] open, int sites) {
+        if (N < 1 || sites != N * N) {
+            throw new IllegalArgumentException();
+        }
+        this.N = N;
+        this.bits = bits;
+        this.open = open;
+        parent = new int[2 * N];
+        size = new int[2 * N];
+        flags = new byte[2 * N];
+        smallClusters = new int[N + 1];
+        scan();
+    }
+
+    public boolean percolates() {
+        return percolates;
+    }
+
+    public int numberOfOpenSites() {
+        return openSites;
+    }
+
+    // number of clusters of open sites
+    public int numberOfClusters() {
+        return clusters;
+    }
+
+    // number of sites in the largest cluster, 0 if no site is open
+    public int largestClusterSize() {
+        return largest;
+    }
+
+    // number of open sites connected to the top row
+    public int numberOfFullSites() {
+        return fullSites;
+    }
+
+    // sizes of the full clusters, top to bottom in the order they end;
+    // there are at most N of them, one per open site in the top row
+    public int[] fullClusterSizes() {
+        return Arrays.copyOf(fullClusters, fullCount);
+    }
+
+    // distinct cluster sizes, ascending; clusterCounts()[k] clusters have
+    // size clusterSizes()[k]
+    public int[] clusterSizes() {
+        int[] sizes = new int[distinctSizes()];
+        int k = 0;
+        for (int s = 1; s <= N; ++s) {
+            if (smallClusters[s] != 0) sizes[k++] = s;
+        }
+        for (int s : largeClusters.keySet()) {
+            sizes[k++] = s;
+        }
+        return sizes;
+    }
+
+    public int[] clusterCounts() {
+        int[] counts = new int[distinctSizes()];
+        int k = 0;
+        for (int s = 1; s <= N; ++s) {
+            if (smallClusters[s] != 0) counts[k++] = smallClusters[s];
+        }
+        for (int count : largeClusters.values()) {
+            counts[k++] = count;
+        }
+        return counts;
+    }
+
+    private int distinctSizes() {
+        int distinct = largeClusters.size();
+        for (int s = 1; s <= N; ++s) {
+            if (smallClusters[s] != 0) ++distinct;
+        }
+        return distinct;
+    }
+
+    private boolean isOpen(int index) {
+        return bits != null ? bits.get(index) : open[index];
+    }
+
+    private void scan() {
+        int[] previous = new int[N];   // node of each site of the previous row, or -1
+        int[] current = new int[N];
+        int[] live = new int[2 * N];   // live[root] = row + 1 if it reaches the row
+        int[] done = new int[2 * N];   // done[root] = row + 1 once counted or renumbered
+        int[] renumbered = new int[2 * N];
+        int[] nextSize = new int[N];
+        byte[] nextFlags = new byte[N];
+        int previousNodes = 0;
+
+        for (int row = 0; row < N; ++row) {
+            byte rowFlags = 0;
+            if (row == 0) rowFlags |= TOP;
+            if (row == N - 1) rowFlags |= BOTTOM;
+
+            // label the runs of the row and join them to the row above
+            int runs = 0;
+            for (int col = 0, index = row * N; col < N; ++col, ++index) {
+                if (!isOpen(index)) {
+                    current[col] = -1;
+                    continue;
+                }
+                ++openSites;
+                int node;
+                if (col > 0 && current[col - 1] != -1) {
+                    node = current[col - 1];
+                    size[find(node)]++;
+                } else {
+                    node = N + runs++;
+                    parent[node] = node;
+                    size[node] = 1;
+                    flags[node] = rowFlags;
+                }
+                current[col] = node;
+                if (row > 0 && previous[col] != -1) {
+                    union(node, previous[col]);
+                }
+            }
+
+            // clusters of the previous row that no run reaches are finished
+            int stamp = row + 1;
+            for (int r = 0; r < runs; ++r) {
+                live[find(N + r)] = stamp;
+            }
+            for (int p = 0; p < previousNodes; ++p) {
+                int root = find(p);
+                if (live[root] != stamp && done[root] != stamp) {
+                    done[root] = stamp;
+                    finish(root);
+                }
+            }
+
+            // renumber the clusters of this row 0, 1, ... for the next one
+            int nodes = 0;
+            for (int r = 0; r < runs; ++r) {
+                int root = find(N + r);
+                if (done[root] != stamp) {
+                    done[root] = stamp;
+                    renumbered[root] = nodes;
+                    nextSize[nodes] = size[root];
+                    nextFlags[nodes] = flags[root];
+                    ++nodes;
+                }
+            }
+            for (int col = 0; col < N; ++col) {
+                if (current[col] != -1) current[col] = renumbered[find(current[col])];
+            }
+            for (int id = 0; id < nodes; ++id) {
+                parent[id] = id;
+                size[id] = nextSize[id];
+                flags[id] = nextFlags[id];
+            }
+            previousNodes = nodes;
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+
+        // whatever reaches the bottom row is finished too
+        for (int p = 0; p < previousNodes; ++p) {
+            finish(p);
+        }
+    }
+
+    // counts the finished cluster with the given root
+    private void finish(int root) {
+        int s = size[root];
+        ++clusters;
+        largest = Math.max(largest, s);
+        if (s <= N) {
+            smallClusters[s]++;
+        } else {
+            Integer count = largeClusters.get(s);
+            largeClusters.put(s, count == null ? 1 : count + 1);
+        }
+        if ((flags[root] & TOP) != 0) {
+            fullSites += s;
+            if (fullCount == fullClusters.length) {
+                fullClusters = Arrays.copyOf(fullClusters, 2 * fullCount);
+            }
+            fullClusters[fullCount++] = s;
+        }
+        if (flags[root] == (TOP | BOTTOM)) {
+            percolates = true;
+        }
+    }
+
+    private int find(int p) {
+        while (p != parent[p]) {
+            parent[p] = parent[parent[p]];
+            p = parent[p];
+        }
+        return p;
+    }
+
+    // union by size, merging the flags into the new root
+    private void union(int p, int q) {
+        int rootP = find(p);
+        int rootQ = find(q);
+        if (rootP == rootQ) return;
+        if (size[rootP] < size[rootQ]) {
+            int tmp = rootP;
+            rootP = rootQ;
+            rootQ = tmp;
+        }
+        parent[rootQ] = rootP;
+        size[rootP] += size[rootQ];
+        flags[rootP] |= flags[rootQ];
+    }
+
+    // analyzes a percolation input file as a static grid
+    public static void main(String[] args) throws IOException {
+        PercolationInput input = PercolationInput.read(args[0]);
+        int N = input.size();
+        SiteBitSet open = new SiteBitSet(N * N);
+        for (int index : input.indices()) {
+            open.set(index);
+        }
+        HoshenKopelman clusters = new HoshenKopelman(open, N);
+        StdOut.printf("%d-by-%d grid, %d open sites: %s%n", N, N, clusters.numberOfOpenSites(),
+                clusters.percolates() ? "percolates" : "does not percolate");
+        StdOut.printf("%d clusters, largest %d, %d full sites in %d full clusters%n",
+                clusters.numberOfClusters(), clusters.largestClusterSize(),
+                clusters.numberOfFullSites(), clusters.fullClusterSizes().length);
+        int[] sizes = clusters.clusterSizes();
+        int[] counts = clusters.clusterCounts();
+        for (int k = 0; k < sizes.length; ++k) {
+            StdOut.printf("%8d %8d%n", sizes[k], counts[k]);
+        }
+    }
+}
@@ -1,7 +1,7 @@
 /****************************************************************************
  *  Compilation:  javac InteractivePercolationVisualizer.java
  *  Execution:    java InteractivePercolationVisualizer N
- *  Dependencies: PercolationVisualizer.java Percolation.java
+ *  Dependencies: PercolationRenderer.java Percolation.java
  *                StdDraw.java StdOut.java
  *
  *  This program takes the grid size N as a command-line argument.
@@ -23,7 +23,8 @@ public class InteractivePercolationVisualizer {
 
         StdDraw.show(0);
         Percolation perc = new Percolation(N);
-        PercolationVisualizer.draw(perc, N);
+        // the renderer listens to perc and draws the sites each open changes
+        new PercolationRenderer(perc, N, false);
         StdDraw.show(0);
 
         while (true) {
@@ -45,11 +46,8 @@ public class InteractivePercolationVisualizer {
                         StdOut.println(i + " " + j);
                     }
                     perc.open(i, j);
+                    StdDraw.show(0);
                 }
-
-                // draw N-by-N percolation system
-                StdDraw.show(0);
-                PercolationVisualizer.draw(perc, N);
             }
             StdDraw.show(20);
         }
@@ -0,0 +1,317 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.LongPredicate;
+
+/**
+ *  {@link ParallelPercolation} with <tt>long</tt> site indices, for grids
+ *  beyond N = 46340 where N*N no longer fits in an <tt>int</tt>.
+ *  <p>
+ *  The grid is one <tt>long</tt> link per site in an {@link OffHeapArray}, as
+ *  in {@link LargePercolation}: 0 for a blocked site, -(rank + 1) for a root
+ *  and parent + 1 for a child, so zeroed memory is a blocked grid and needs
+ *  no initialization pass. Rows are padded so that none straddles two 1 GB
+ *  chunks, which limits N to 2^27, and links are numbered by their slot in
+ *  the padded array rather than by site index, so that following a link
+ *  needs no division. That is 8 bytes per site against 5 for
+ *  <tt>ParallelPercolation</tt>, and about twice its time on one thread,
+ *  so below N = 46341 use that one.
+ *  <p>
+ *  Strips and joins are those of <tt>ParallelPercolation</tt>, except that
+ *  the rows are also cut where a chunk ends, so every strip lies in one
+ *  chunk.
+ */
+public class LargeParallelPercolation implements Closeable {
+    // strips per thread, so that uneven strips still balance
+    private static final int STRIPS_PER_THREAD = 4;
+
+    private final long N;
+    private final long rowsPerChunk;
+    private final long slotsPerChunk;
+    private final OffHeapArray links;
+    private final LongPredicate open;
+    private final int[] bounds;        // strip s is rows bounds[s]..bounds[s + 1] - 1
+    private final long[] opened;       // opened[s] = open sites of strip s
+    private final long[] topRoots;     // slots of the roots of the open top-row sites, sorted
+    private final boolean percolates;
+
+    // labels the N-by-N grid in which the site of row-major index k is open
+    // if open.test(k); open is called once per site, from several threads
+    public LargeParallelPercolation(long N, LongPredicate open, int threads) {
+        this(N, open, threads, OffHeapArray.CHUNK_SIZE);
+    }
+
+    // same as above, with the links in the given file, which must not hold
+    // an earlier grid; a new file is sparse, so only open sites take space
+    public LargeParallelPercolation(long N, LongPredicate open, int threads, Path file)
+            throws IOException {
+        this(N, open, threads, OffHeapArray.CHUNK_SIZE,
+             OffHeapArray.map(file, linkBytes(N, threads, OffHeapArray.CHUNK_SIZE)));
+    }
+
+    // same as the first, in chunks of chunkSize bytes, a power of two
+    LargeParallelPercolation(long N, LongPredicate open, int threads, long chunkSize) {
+        this(N, open, threads, chunkSize,
+             OffHeapArray.allocate(linkBytes(N, threads, chunkSize), chunkSize));
+    }
+
+    private LargeParallelPercolation(long N, LongPredicate open, int threads, long chunkSize,
+                                     OffHeapArray links) {
+        this.N = N;
+        this.open = open;
+        this.links = links;
+        rowsPerChunk = chunkSize / (8 * N);
+        slotsPerChunk = chunkSize / 8;
+        bounds = strips(N, rowsPerChunk, STRIPS_PER_THREAD * threads);
+        opened = new long[bounds.length - 1];
+
+        try {
+            if (threads == 1) {
+                label(0, strips());
+            } else {
+                ForkJoinPool pool = new ForkJoinPool(threads);
+                try {
+                    pool.invoke(new Strips(0, strips()));
+                } finally {
+                    pool.shutdown();
+                }
+            }
+        } catch (RuntimeException | Error e) {
+            try {
+                links.close();
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+
+        long[] roots = new long[(int) N];
+        int count = 0;
+        for (long col = 0; col < N; ++col) {
+            if (isOpen(slot(0, col))) roots[count++] = find(slot(0, col));
+        }
+        Arrays.sort(roots, 0, count);
+        topRoots = Arrays.copyOf(roots, count);
+
+        boolean bottomFull = false;
+        for (long slot = slot(N - 1, 0), end = slot + N; slot < end && !bottomFull; ++slot) {
+            if (isOpen(slot) && isTopRoot(find(slot))) bottomFull = true;
+        }
+        percolates = bottomFull;
+    }
+
+    public boolean isOpen(long i, long j) {
+        verifyIndex(i, j);
+        return isOpen(slot(i - 1, j - 1));
+    }
+
+    public boolean isFull(long i, long j) {
+        verifyIndex(i, j);
+        long slot = slot(i - 1, j - 1);
+        return isOpen(slot) && isTopRoot(find(slot));
+    }
+
+    public boolean percolates() {
+        return percolates;
+    }
+
+    public long numberOfOpenSites() {
+        long count = 0;
+        for (long strip : opened) {
+            count += strip;
+        }
+        return count;
+    }
+
+    // number of strips the rows were cut into
+    public int strips() {
+        return bounds.length - 1;
+    }
+
+    // releases the backing file; direct memory is released by the collector
+    public void close() throws IOException {
+        links.close();
+    }
+
+    // labels strips [lo, hi) and joins them
+    private void label(int lo, int hi) {
+        if (hi - lo == 1) {
+            labelStrip(lo);
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        label(lo, mid);
+        label(mid, hi);
+        joinRows(bounds[mid]);
+    }
+
+    // opens the sites of strip s and labels them on their own; the strip
+    // is in one chunk, so the site above is always N slots back
+    private void labelStrip(int s) {
+        long count = 0;
+        for (long row = bounds[s]; row < bounds[s + 1]; ++row) {
+            long index = row * N;
+            long slot = slot(row, 0);
+            for (long col = 0; col < N; ++col, ++index, ++slot) {
+                if (!open.test(index)) continue;
+                setLink(slot, -1);
+                ++count;
+                if (col > 0 && isOpen(slot - 1)) union(slot, slot - 1);
+                if (row > bounds[s] && isOpen(slot - N)) union(slot, slot - N);
+            }
+        }
+        opened[s] = count;
+    }
+
+    // joins row to the row above it, the last of the strip before
+    private void joinRows(long row) {
+        long below = slot(row, 0);
+        long above = slot(row - 1, 0);
+        for (long col = 0; col < N; ++col) {
+            if (isOpen(below + col) && isOpen(above + col)) union(below + col, above + col);
+        }
+    }
+
+    private boolean isTopRoot(long root) {
+        return Arrays.binarySearch(topRoots, root) >= 0;
+    }
+
+    private boolean isOpen(long slot) {
+        return link(slot) != 0;
+    }
+
+    // root of slot, halving the path on the way
+    private long find(long slot) {
+        long parent = link(slot);
+        while (parent > 0) {
+            long grandparent = link(parent - 1);
+            if (grandparent <= 0) return parent - 1;
+            setLink(slot, grandparent);
+            slot = grandparent - 1;
+            parent = link(slot);
+        }
+        return slot;
+    }
+
+    private void union(long p, long q) {
+        long i = find(p);
+        long j = find(q);
+        if (i == j) return;
+
+        // make root of smaller rank point to root of larger rank
+        long iRank = -link(i);
+        long jRank = -link(j);
+        if (iRank < jRank) {
+            long tmp = i;
+            i = j;
+            j = tmp;
+        }
+        setLink(j, i + 1);
+        if (iRank == jRank) setLink(i, -(iRank + 1));
+    }
+
+    private long link(long slot) {
+        return links.getLong(8 * slot);
+    }
+
+    private void setLink(long slot, long value) {
+        links.putLong(8 * slot, value);
+    }
+
+    // slot of the site in 0-based row and column: whole rows per chunk
+    private long slot(long row, long col) {
+        long chunk = row / rowsPerChunk;
+        return chunk * slotsPerChunk + (row - chunk * rowsPerChunk) * N + col;
+    }
+
+    private void verifyIndex(long i, long j) {
+        if (i < 1 || i > N || j < 1 || j > N) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    // bytes of the links of an N-by-N grid, with whole rows in each chunk;
+    // checks the arguments before anything is allocated
+    private static long linkBytes(long N, int threads, long chunkSize) {
+        if (N < 1 || threads < 1 || 8 * N > chunkSize) {
+            throw new IllegalArgumentException();
+        }
+        long rowsPerChunk = chunkSize / (8 * N);
+        return N / rowsPerChunk * chunkSize + N % rowsPerChunk * 8 * N;
+    }
+
+    // bounds of about count strips of equal height, also cut where a chunk
+    // of rows ends
+    private static int[] strips(long N, long rowsPerChunk, int count) {
+        int even = (int) Math.min(N, count);
+        int[] cuts = new int[even + (int) (N / rowsPerChunk) + 1];
+        int size = 0;
+        for (int s = 0; s <= even; ++s) {
+            cuts[size++] = (int) (N * s / even);
+        }
+        for (long row = rowsPerChunk; row < N; row += rowsPerChunk) {
+            cuts[size++] = (int) row;
+        }
+        Arrays.sort(cuts, 0, size);
+        int distinct = 1;
+        for (int k = 1; k < size; ++k) {
+            if (cuts[k] != cuts[distinct - 1]) cuts[distinct++] = cuts[k];
+        }
+        return Arrays.copyOf(cuts, distinct);
+    }
+
+    // labels a random N-by-N grid with sites open with probability p on the
+    // given number of threads, its links optionally in a file
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args.length > 4) {
+            StdOut.printf("Need N, p and optionally a number of threads and a file for the links%n");
+            return;
+        }
+        long N = Long.parseLong(args[0]);
+        double p = Double.parseDouble(args[1]);
+        int threads = args.length > 2 ? Integer.parseInt(args[2])
+                                       : Runtime.getRuntime().availableProcessors();
+        long seed = System.nanoTime();
+        // independent uniform per site, from any thread
+        LongPredicate open = index -> (PercolationStats.trialSeed(seed, index) >>> 11) * 0x1.0p-53 < p;
+        Stopwatch stopwatch = new Stopwatch();
+        LargeParallelPercolation perc = args.length > 3
+                ? new LargeParallelPercolation(N, open, threads, Paths.get(args[3]))
+                : new LargeParallelPercolation(N, open, threads);
+        StdOut.printf("%d-by-%d grid on %d threads, %d strips: %s, %.3f s%n", N, N, threads,
+                perc.strips(), perc.percolates() ? "percolates" : "does not percolate",
+                stopwatch.elapsedTime());
+        perc.close();
+    }
+
+    // labels and joins strips [lo, hi), the two halves in parallel
+    private class Strips extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int lo;
+        private final int hi;
+
+        public Strips(int lo, int hi) {
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo == 1) {
+                labelStrip(lo);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            Strips right = new Strips(mid, hi);
+            right.fork();
+            new Strips(lo, mid).compute();
+            right.join();
+            joinRows(bounds[mid]);
+        }
+    }
+}
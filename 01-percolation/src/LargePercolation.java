@@ -0,0 +1,149 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ *  Percolation on an N-by-N grid with <tt>long</tt> site indices, for grids
+ *  beyond N = 46340 where N*N no longer fits in an <tt>int</tt>.
+ *  <p>
+ *  Same model and semantics as {@link Percolation}: one union-find (union by
+ *  rank with path halving) plus per-root flags for touching the top and the
+ *  bottom row. Everything lives in an {@link OffHeapArray}, 9 bytes per
+ *  site, either in direct memory or in a memory-mapped file:
+ *  <ul>
+ *  <li>a <tt>long</tt> link per site: parent + 1 for a child, or -rank for a
+ *      root, so that zeroed memory is N*N singleton components of rank 0 and
+ *      needs no initialization pass;</li>
+ *  <li>a flags byte per site: open, plus top and bottom for roots.</li>
+ *  </ul>
+ */
+public class LargePercolation implements Closeable {
+    private static final byte OPEN = 1;
+    private static final byte TOP = 2;
+    private static final byte BOTTOM = 4;
+
+    private final long N;
+    private final long flagsOffset;
+    private final OffHeapArray memory;
+    private boolean percolates;
+
+    // N-by-N grid in direct memory
+    public LargePercolation(long n) {
+        N = n;
+        flagsOffset = 8 * sites(n);
+        memory = OffHeapArray.allocate(9 * sites(n));
+    }
+
+    // N-by-N grid in the given file, which must not hold an earlier grid
+    public LargePercolation(long n, Path file) throws IOException {
+        N = n;
+        flagsOffset = 8 * sites(n);
+        memory = OffHeapArray.map(file, 9 * sites(n));
+    }
+
+    public void open(long i, long j) {
+        verifyIndex(i, j);
+        long index = getIndex(i, j);
+        byte flags = flags(index);
+        if ((flags & OPEN) != 0) return;
+        flags = OPEN;
+        if (i == 1) flags |= TOP;
+        if (i == N) flags |= BOTTOM;
+        setFlags(index, flags);
+
+        if (i > 1) join(index, index - N);
+        if (i < N) join(index, index + N);
+        if (j > 1) join(index, index - 1);
+        if (j < N) join(index, index + 1);
+
+        if ((flags(find(index)) & (TOP | BOTTOM)) == (TOP | BOTTOM)) {
+            percolates = true;
+        }
+    }
+
+    public boolean isOpen(long i, long j) {
+        verifyIndex(i, j);
+        return (flags(getIndex(i, j)) & OPEN) != 0;
+    }
+
+    public boolean isFull(long i, long j) {
+        verifyIndex(i, j);
+        long index = getIndex(i, j);
+        return (flags(index) & OPEN) != 0 && (flags(find(index)) & TOP) != 0;
+    }
+
+    public boolean percolates() {
+        return percolates;
+    }
+
+    public void close() throws IOException {
+        memory.close();
+    }
+
+    // merges open neighbour n into the component of index, merging their flags
+    private void join(long index, long n) {
+        if ((flags(n) & OPEN) == 0) return;
+        long p = find(index);
+        long q = find(n);
+        if (p == q) return;
+
+        // make root of smaller rank point to root of larger rank
+        long pRank = -link(p);
+        long qRank = -link(q);
+        if (pRank < qRank) {
+            long tmp = p;
+            p = q;
+            q = tmp;
+        }
+        setLink(q, p + 1);
+        if (pRank == qRank) setLink(p, -(pRank + 1));
+        setFlags(p, (byte) (flags(p) | flags(q)));
+    }
+
+    // root of index, halving the path on the way
+    private long find(long index) {
+        long parent = link(index);
+        while (parent > 0) {
+            long grandparent = link(parent - 1);
+            if (grandparent <= 0) return parent - 1;
+            setLink(index, grandparent);
+            index = grandparent - 1;
+            parent = link(index);
+        }
+        return index;
+    }
+
+    private long link(long index) {
+        return memory.getLong(8 * index);
+    }
+
+    private void setLink(long index, long value) {
+        memory.putLong(8 * index, value);
+    }
+
+    private byte flags(long index) {
+        return memory.getByte(flagsOffset + index);
+    }
+
+    private void setFlags(long index, byte value) {
+        memory.putByte(flagsOffset + index, value);
+    }
+
+    private long getIndex(long i, long j) {
+        return (i - 1) * N + (j - 1);
+    }
+
+    private void verifyIndex(long i, long j) {
+        if (i < 1 || i > N || j < 1 || j > N) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    // number of sites of an n-by-n grid, such that 9 bytes each still fit in a long
+    private static long sites(long n) {
+        if (n < 1 || n > Long.MAX_VALUE / 9 / n) {
+            throw new IllegalArgumentException();
+        }
+        return n * n;
+    }
+}
@@ -0,0 +1,203 @@
+/**
+ *  Graph for {@link GraphPercolation}: n nodes with their neighbours in
+ *  compressed sparse row form, the neighbours of node v being
+ *  <tt>targets[offsets[v]]</tt> through <tt>targets[offsets[v + 1] - 1]</tt>,
+ *  plus the source nodes, which play the part of the top row, and the sink
+ *  nodes, which play the part of the bottom row.
+ *  <p>
+ *  Edges are undirected. The generated lattices list every edge at both of
+ *  its ends; position k of <tt>targets</tt> is the bond number k that
+ *  bond percolation opens. Arrays are kept, not copied.
+ */
+public class Lattice {
+    final int[] offsets;
+    final int[] targets;
+    final int[] sources;
+    final int[] sinks;
+
+    public Lattice(int[] offsets, int[] targets, int[] sources, int[] sinks) {
+        int n = offsets.length - 1;
+        if (n < 0 || offsets[0] != 0 || offsets[n] != targets.length) {
+            throw new IllegalArgumentException("offsets don't cover targets");
+        }
+        for (int v = 0; v < n; ++v) {
+            if (offsets[v] > offsets[v + 1]) {
+                throw new IllegalArgumentException("offsets decrease at node " + v);
+            }
+        }
+        verifyNodes(targets, n);
+        verifyNodes(sources, n);
+        verifyNodes(sinks, n);
+        this.offsets = offsets;
+        this.targets = targets;
+        this.sources = sources;
+        this.sinks = sinks;
+    }
+
+    // number of nodes
+    public int size() {
+        return offsets.length - 1;
+    }
+
+    // number of entries of targets, each undirected edge counted at both ends
+    public int bonds() {
+        return targets.length;
+    }
+
+    public int degree(int v) {
+        return offsets[v + 1] - offsets[v];
+    }
+
+    public int[] offsets() {
+        return offsets;
+    }
+
+    public int[] targets() {
+        return targets;
+    }
+
+    public int[] sources() {
+        return sources;
+    }
+
+    public int[] sinks() {
+        return sinks;
+    }
+
+    // node that bond k starts from
+    public int tail(int k) {
+        if (k < 0 || k >= targets.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        // last v with offsets[v] <= k and a non-empty list
+        int lo = 0;
+        int hi = size() - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (offsets[mid] <= k) lo = mid;
+            else                   hi = mid - 1;
+        }
+        return lo;
+    }
+
+    // N-by-N square lattice, the grid of Percolation: node (i - 1) * N + (j - 1)
+    // is site (i, j), sources are the top row and sinks the bottom row
+    public static Lattice square(final int N) {
+        return grid(N, 4, new Neighbours() {
+            public int list(int row, int col, int[] out) {
+                int count = 0;
+                if (row > 0)     out[count++] = (row - 1) * N + col;
+                if (row < N - 1) out[count++] = (row + 1) * N + col;
+                if (col > 0)     out[count++] = row * N + col - 1;
+                if (col < N - 1) out[count++] = row * N + col + 1;
+                return count;
+            }
+        });
+    }
+
+    // N-by-N triangular lattice: the square lattice plus the diagonal from
+    // (i, j) to (i - 1, j + 1), six neighbours per inner node
+    public static Lattice triangular(final int N) {
+        return grid(N, 6, new Neighbours() {
+            public int list(int row, int col, int[] out) {
+                int count = 0;
+                if (row > 0)     out[count++] = (row - 1) * N + col;
+                if (row < N - 1) out[count++] = (row + 1) * N + col;
+                if (col > 0)     out[count++] = row * N + col - 1;
+                if (col < N - 1) out[count++] = row * N + col + 1;
+                if (row > 0 && col < N - 1) out[count++] = (row - 1) * N + col + 1;
+                if (row < N - 1 && col > 0) out[count++] = (row + 1) * N + col - 1;
+                return count;
+            }
+        });
+    }
+
+    // N-by-N hexagonal (honeycomb) lattice as a brick wall: left and right
+    // neighbours, and the one below if i + j is even, else the one above;
+    // three neighbours per inner node
+    public static Lattice hexagonal(final int N) {
+        return grid(N, 3, new Neighbours() {
+            public int list(int row, int col, int[] out) {
+                int count = 0;
+                if (col > 0)     out[count++] = row * N + col - 1;
+                if (col < N - 1) out[count++] = row * N + col + 1;
+                if ((row + col) % 2 == 0) {
+                    if (row < N - 1) out[count++] = (row + 1) * N + col;
+                } else {
+                    if (row > 0)     out[count++] = (row - 1) * N + col;
+                }
+                return count;
+            }
+        });
+    }
+
+    // N-by-N-by-N simple cubic lattice: node (z * N + y) * N + x, six
+    // neighbours per inner node, sources the layer z = 0 and sinks z = N - 1
+    public static Lattice cubic(int N) {
+        if (N < 1 || (long) N * N * N > Integer.MAX_VALUE / 6) {
+            throw new IllegalArgumentException();
+        }
+        int n = N * N * N;
+        int layer = N * N;
+        int[] offsets = new int[n + 1];
+        int[] targets = new int[6 * n - 6 * layer];
+        int k = 0;
+        for (int v = 0; v < n; ++v) {
+            int x = v % N;
+            int y = v / N % N;
+            int z = v / layer;
+            if (x > 0)     targets[k++] = v - 1;
+            if (x < N - 1) targets[k++] = v + 1;
+            if (y > 0)     targets[k++] = v - N;
+            if (y < N - 1) targets[k++] = v + N;
+            if (z > 0)     targets[k++] = v - layer;
+            if (z < N - 1) targets[k++] = v + layer;
+            offsets[v + 1] = k;
+        }
+        int[] sources = new int[layer];
+        int[] sinks = new int[layer];
+        for (int v = 0; v < layer; ++v) {
+            sources[v] = v;
+            sinks[v] = n - layer + v;
+        }
+        return new Lattice(offsets, targets, sources, sinks);
+    }
+
+    // neighbours of a node of an N-by-N grid
+    private interface Neighbours {
+        // stores the neighbours of (row, col), 0-based, in out; returns how many
+        int list(int row, int col, int[] out);
+    }
+
+    private static Lattice grid(int N, int maxDegree, Neighbours neighbours) {
+        if (N < 1 || (long) N * N > Integer.MAX_VALUE / maxDegree) {
+            throw new IllegalArgumentException();
+        }
+        int n = N * N;
+        int[] out = new int[maxDegree];
+        int[] offsets = new int[n + 1];
+        for (int v = 0; v < n; ++v) {
+            offsets[v + 1] = offsets[v] + neighbours.list(v / N, v % N, out);
+        }
+        int[] targets = new int[offsets[n]];
+        for (int v = 0; v < n; ++v) {
+            int count = neighbours.list(v / N, v % N, out);
+            System.arraycopy(out, 0, targets, offsets[v], count);
+        }
+        int[] sources = new int[N];
+        int[] sinks = new int[N];
+        for (int col = 0; col < N; ++col) {
+            sources[col] = col;
+            sinks[col] = n - N + col;
+        }
+        return new Lattice(offsets, targets, sources, sinks);
+    }
+
+    private static void verifyNodes(int[] nodes, int n) {
+        for (int v : nodes) {
+            if (v < 0 || v >= n) {
+                throw new IllegalArgumentException("node " + v + " out of range");
+            }
+        }
+    }
+}
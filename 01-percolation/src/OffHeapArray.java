@@ -0,0 +1,105 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ *  Zero-initialized block of memory outside the Java heap, addressed by
+ *  <tt>long</tt> byte offsets.
+ *  <p>
+ *  A single <tt>ByteBuffer</tt> is limited to 2 GB, so the block is split into
+ *  1 GB chunks, either direct buffers or regions of a memory-mapped file.
+ *  <tt>long</tt> values must be 8-byte aligned so that they never straddle two
+ *  chunks. Tests can ask for smaller chunks, to cross chunk boundaries on
+ *  small arrays.
+ */
+public final class OffHeapArray implements Closeable {
+    static final long CHUNK_SIZE = 1L << 30;
+
+    private final ByteBuffer[] chunks;
+    private final int chunkShift;
+    private final long chunkMask;
+    private final long size;
+    private final FileChannel channel;
+
+    private OffHeapArray(long size, long chunkSize, FileChannel channel) throws IOException {
+        if (size < 0 || chunkSize < 8 || chunkSize > CHUNK_SIZE || Long.bitCount(chunkSize) != 1) {
+            throw new IllegalArgumentException();
+        }
+        this.size = size;
+        this.channel = channel;
+        chunkShift = Long.numberOfTrailingZeros(chunkSize);
+        chunkMask = chunkSize - 1;
+        chunks = new ByteBuffer[(int) ((size + chunkMask) >>> chunkShift)];
+        for (int c = 0; c < chunks.length; ++c) {
+            long start = (long) c << chunkShift;
+            int length = (int) Math.min(chunkSize, size - start);
+            ByteBuffer chunk = channel == null
+                    ? ByteBuffer.allocateDirect(length)
+                    : channel.map(FileChannel.MapMode.READ_WRITE, start, length);
+            chunks[c] = chunk.order(ByteOrder.nativeOrder());
+        }
+    }
+
+    // size bytes of direct memory
+    public static OffHeapArray allocate(long size) {
+        return allocate(size, CHUNK_SIZE);
+    }
+
+    // same, in chunks of the given power of two bytes, at most CHUNK_SIZE
+    static OffHeapArray allocate(long size, long chunkSize) {
+        try {
+            return new OffHeapArray(size, chunkSize, null);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    // size bytes mapped from the given file, which is created if needed;
+    // a newly created file is sparse and reads as zeros
+    public static OffHeapArray map(Path file, long size) throws IOException {
+        return map(file, size, CHUNK_SIZE);
+    }
+
+    // same, in chunks of the given power of two bytes, at most CHUNK_SIZE
+    static OffHeapArray map(Path file, long size, long chunkSize) throws IOException {
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            return new OffHeapArray(size, chunkSize, channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public byte getByte(long offset) {
+        return chunks[(int) (offset >>> chunkShift)].get((int) (offset & chunkMask));
+    }
+
+    public void putByte(long offset, byte value) {
+        chunks[(int) (offset >>> chunkShift)].put((int) (offset & chunkMask), value);
+    }
+
+    public long getLong(long offset) {
+        return chunks[(int) (offset >>> chunkShift)].getLong((int) (offset & chunkMask));
+    }
+
+    public void putLong(long offset, long value) {
+        chunks[(int) (offset >>> chunkShift)].putLong((int) (offset & chunkMask), value);
+    }
+
+    // releases the backing file; direct memory is released by the collector
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,206 @@
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ *  Percolation of one complete N-by-N grid, labeled on several threads.
+ *  <p>
+ *  The rows are cut into horizontal strips, a few per thread. Each strip is
+ *  labeled on its own by union-find over its part of shared <tt>parent</tt>
+ *  and <tt>rank</tt> arrays, joining open sites to their left and upper
+ *  neighbours inside the strip. Strips are then joined pairwise in a fork/join
+ *  tree by unioning the open vertical pairs across their boundary row. A
+ *  component never leaves the strips of its subtree, so the threads write to
+ *  disjoint parts of the arrays and need no locks.
+ *  <p>
+ *  Afterwards the roots of the open top-row sites are kept, sorted: a site is
+ *  full if its root is one of them, and the grid percolates if the root of an
+ *  open bottom-row site is. The components are those of a sequential
+ *  {@link Percolation} that opened the same sites, so both give the same
+ *  answers. Sites are 0-based row-major indices, which limits N to 46340;
+ *  {@link LargeParallelPercolation} labels larger grids.
+ */
+public class ParallelPercolation {
+    // strips per thread, so that uneven strips still balance
+    private static final int STRIPS_PER_THREAD = 4;
+
+    private final int N;
+    private final SiteBitSet sites;
+    private final int[] parent;        // parent[i] = parent of i
+    private final byte[] rank;         // rank[i] = rank of subtree rooted at i
+    private final int[] bounds;        // strip s is rows bounds[s]..bounds[s + 1] - 1
+    private final int[] topRoots;      // roots of the open sites of the top row, sorted
+    private final boolean percolates;
+
+    // labels the grid of the sites set in open, which must have N*N bits
+    public ParallelPercolation(SiteBitSet open, int N, int threads) {
+        if (N < 1 || open.size() != N * N || threads < 1) {
+            throw new IllegalArgumentException();
+        }
+        this.N = N;
+        sites = open;
+        parent = new int[N * N];
+        rank = new byte[N * N];
+
+        int strips = Math.min(N, STRIPS_PER_THREAD * threads);
+        bounds = new int[strips + 1];
+        for (int s = 0; s <= strips; ++s) {
+            bounds[s] = (int) ((long) N * s / strips);
+        }
+        if (threads == 1) {
+            label(0, strips);
+        } else {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                pool.invoke(new Strips(0, strips));
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        int[] roots = new int[N];
+        int count = 0;
+        for (int col = 0; col < N; ++col) {
+            if (sites.get(col)) roots[count++] = find(col);
+        }
+        Arrays.sort(roots, 0, count);
+        topRoots = Arrays.copyOf(roots, count);
+
+        boolean bottomFull = false;
+        for (int index = (N - 1) * N; index < N * N && !bottomFull; ++index) {
+            if (sites.get(index) && isTopRoot(find(index))) bottomFull = true;
+        }
+        percolates = bottomFull;
+    }
+
+    public boolean isOpen(int i, int j) {
+        verifyIndex(i, j);
+        return sites.get((i - 1) * N + (j - 1));
+    }
+
+    public boolean isFull(int i, int j) {
+        verifyIndex(i, j);
+        int index = (i - 1) * N + (j - 1);
+        return sites.get(index) && isTopRoot(find(index));
+    }
+
+    public boolean percolates() {
+        return percolates;
+    }
+
+    public int numberOfOpenSites() {
+        return sites.cardinality();
+    }
+
+    // number of strips the rows were cut into
+    public int strips() {
+        return bounds.length - 1;
+    }
+
+    // labels strips [lo, hi) and joins them
+    private void label(int lo, int hi) {
+        if (hi - lo == 1) {
+            labelStrip(bounds[lo], bounds[hi]);
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        label(lo, mid);
+        label(mid, hi);
+        joinRows(bounds[mid]);
+    }
+
+    // union-find of rows [first, last) on their own
+    private void labelStrip(int first, int last) {
+        for (int row = first; row < last; ++row) {
+            for (int col = 0, index = row * N; col < N; ++col, ++index) {
+                parent[index] = index;
+                if (!sites.get(index)) continue;
+                if (col > 0 && sites.get(index - 1)) union(index, index - 1);
+                if (row > first && sites.get(index - N)) union(index, index - N);
+            }
+        }
+    }
+
+    // joins row to the row above it, the last of the strip before
+    private void joinRows(int row) {
+        for (int index = row * N, end = index + N; index < end; ++index) {
+            if (sites.get(index) && sites.get(index - N)) union(index, index - N);
+        }
+    }
+
+    private boolean isTopRoot(int root) {
+        return Arrays.binarySearch(topRoots, root) >= 0;
+    }
+
+    private int find(int p) {
+        while (p != parent[p]) {
+            parent[p] = parent[parent[p]];
+            p = parent[p];
+        }
+        return p;
+    }
+
+    private void union(int p, int q) {
+        int i = find(p);
+        int j = find(q);
+        if (i == j) return;
+        if (rank[i] < rank[j]) {
+            int tmp = i;
+            i = j;
+            j = tmp;
+        }
+        parent[j] = i;
+        if (rank[i] == rank[j]) rank[i]++;
+    }
+
+    private void verifyIndex(int i, int j) {
+        if (i < 1 || i > N || j < 1 || j > N) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    // labels a grid file read by PercolationInput on the given number of threads
+    public static void main(String[] args) throws IOException {
+        PercolationInput input = PercolationInput.read(args[0]);
+        int threads = args.length > 1 ? Integer.parseInt(args[1])
+                                       : Runtime.getRuntime().availableProcessors();
+        int N = input.size();
+        SiteBitSet open = new SiteBitSet(N * N);
+        for (int index : input.indices()) {
+            open.set(index);
+        }
+        Stopwatch stopwatch = new Stopwatch();
+        ParallelPercolation perc = new ParallelPercolation(open, N, threads);
+        StdOut.printf("%d-by-%d grid on %d threads, %d strips: %s, %.3f s%n", N, N, threads,
+                perc.strips(), perc.percolates() ? "percolates" : "does not percolate",
+                stopwatch.elapsedTime());
+    }
+
+    // labels and joins strips [lo, hi), the two halves in parallel
+    private class Strips extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int lo;
+        private final int hi;
+
+        public Strips(int lo, int hi) {
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo == 1) {
+                labelStrip(bounds[lo], bounds[hi]);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            Strips right = new Strips(mid, hi);
+            right.fork();
+            new Strips(lo, mid).compute();
+            right.join();
+            joinRows(bounds[mid]);
+        }
+    }
+}
@@ -1,117 +1,334 @@
+import java.util.Arrays;
+
 public class Percolation {
+    // per-root flags, only meaningful for the root of each component
+    private static final byte TOP = 1;
+    private static final byte BOTTOM = 2;
+    private static final byte LEFT = 4;
+    private static final byte RIGHT = 8;
+
     private final int N;
-    private final boolean[] sites;
-    private final WeightedQuickUnionUF percolatingSites;
-    private final WeightedQuickUnionUF fullSites;
-    private final int virtualTop;
-    private final int virtualBottom;
+    private final SiteLayout layout;   // slots of the sites in the arrays below
+    private final SiteBitSet sites;
+    private final UnionFind clusters;
+    private final byte[] touches;
+    private boolean percolates;
+    private boolean percolatesHorizontally;  // some component touches both side columns
+    private int openSites;
+    private int openClusters;          // components of open sites
+    private int fullSites;             // open sites in components touching the top
+    private int largestCluster;        // sites in the largest component
+    private long sumOfSquaredSizes;    // sum over components of size^2
+    private int joinedNotFull;         // sites joined by the open in progress from
+                                       // components not touching the top
+
+    // listeners, and what the open in progress merged while there are any
+    private PercolationListener[] listeners = new PercolationListener[0];
+    private final int[] mergedRoots = new int[4];     // neighbour roots before the merge
+    private final int[] mergedFlags = new int[4];
+    private final int[] absorbedRoots = new int[4];
+    private final int[] filledRoots = new int[4];
+    private int merges;
 
     public Percolation(int n) {
-        N = n;
-        sites = new boolean[N * N];
-        virtualTop = sites.length;
-        virtualBottom = virtualTop + 1;
+        this(n, UnionFindStrategy.WEIGHTED_QUICK_UNION);
+    }
 
-        // needs two extra indices for virtual top and virtual bottom site
-        percolatingSites = new WeightedQuickUnionUF(sites.length + 2);
-        // needs extra index for virtual top
-        fullSites = new WeightedQuickUnionUF(sites.length + 1);
+    public Percolation(int n, UnionFindStrategy strategy) {
+        this(n, strategy, SiteLayout.ROW_MAJOR);
+    }
+
+    // site bits, union-find and flags all indexed by the slots of layout
+    public Percolation(int n, UnionFindStrategy strategy, SiteLayout layout) {
+        N = n;
+        this.layout = layout;
+        sites = new SiteBitSet(layout.slots(N));
+        // no virtual sites: whether a component touches the top or the bottom
+        // row is kept in touches[root], which avoids backwash without a second
+        // union-find
+        clusters = strategy.create(sites.size());
+        touches = new byte[sites.size()];
     }
 
     public void open(int i, int j) {
         verifyIndex(i, j);
-        int curIndex = getIndex(i, j);
-        sites[curIndex] = true;
+        openIndex(getIndex(i, j));
+    }
 
-        if (i == 1) {
-            percolatingSites.union(virtualTop, curIndex);
-            fullSites.union(virtualTop, curIndex);
+    // opens sites (rows[k], cols[k]) in order; all indices are checked
+    // before any site is opened
+    public void openAll(int[] rows, int[] cols) {
+        if (rows.length != cols.length) {
+            throw new IllegalArgumentException();
+        }
+        for (int k = 0; k < rows.length; ++k) {
+            verifyIndex(rows[k], cols[k]);
         }
-        if (N == i) {
-            percolatingSites.union(virtualBottom, curIndex);
+        for (int k = 0; k < rows.length; ++k) {
+            openIndex(getIndex(rows[k], cols[k]));
         }
+    }
 
-        for (Pair neighbour : neighbours(i, j)) {
-            int n = getIndex(neighbour.getI(), neighbour.getJ());
+    // opens sites by their 0-based row-major indices (i - 1) * N + (j - 1),
+    // in order; all indices are checked before any site is opened
+    public void openAll(int[] indices) {
+        int count = N * N;
+        for (int index : indices) {
+            if (index < 0 || index >= count) {
+                throw new IndexOutOfBoundsException();
+            }
+        }
+        for (int index : indices) {
+            openIndex(index);
+        }
+    }
 
-            if (sites[n]) {
-                percolatingSites.union(n, curIndex);
-                fullSites.union(n, curIndex);
+    // opens site by its 0-based row-major index; does no bounds checking
+    // and allocates nothing, for trusted callers such as PercolationStats
+    void openIndex(int index) {
+        int row = index / N;
+        int col = index - row * N;
+        int slot = layout.slot(row, col, N);
+        if (!sites.set(slot)) return;
+        openSites++;
+        openClusters++;
+        sumOfSquaredSizes++;
+
+        int flags = 0;
+        if (row == 0) flags |= TOP;
+        if (row == N - 1) flags |= BOTTOM;
+        if (col == 0) flags |= LEFT;
+        if (col == N - 1) flags |= RIGHT;
+
+        merges = 0;
+        joinedNotFull = 0;
+        if (row > 0)     flags |= join(slot, layout.slot(row - 1, col, N));
+        if (row < N - 1) flags |= join(slot, layout.slot(row + 1, col, N));
+        if (col > 0)     flags |= join(slot, layout.slot(row, col - 1, N));
+        if (col < N - 1) flags |= join(slot, layout.slot(row, col + 1, N));
+
+        int root = clusters.find(slot);
+        touches[root] = (byte) flags;
+        largestCluster = Math.max(largestCluster, clusters.size(root));
+        if ((flags & TOP) != 0) {
+            fullSites += 1 + joinedNotFull;
+        }
+        boolean percolated = false;
+        if ((flags & (LEFT | RIGHT)) == (LEFT | RIGHT)) {
+            percolatesHorizontally = true;
+        }
+        if ((flags & (TOP | BOTTOM)) == (TOP | BOTTOM) && !percolates) {
+            percolates = true;
+            percolated = true;
+        }
+        if (listeners.length != 0) {
+            fire(index, root, flags, percolated);
+        }
+    }
+
+    // sends the events of opening site index, which is now in the cluster
+    // with root slot root and the given flags; roots go out as row-major indices
+    private void fire(int index, int root, int flags, boolean percolated) {
+        int i = index / N + 1;
+        int j = index % N + 1;
+        root = layout.index(root, N);
+        int filled = 0;
+        if ((flags & TOP) != 0) {
+            for (int k = 0; k < merges; ++k) {
+                if ((mergedFlags[k] & TOP) == 0) filledRoots[filled++] = layout.index(mergedRoots[k], N);
+            }
+        }
+        for (int k = 0; k < merges; ++k) {
+            absorbedRoots[k] = layout.index(absorbedRoots[k], N);
+        }
+        for (PercolationListener listener : listeners) {
+            listener.siteOpened(i, j);
+            for (int k = 0; k < merges; ++k) {
+                listener.clustersMerged(root, absorbedRoots[k]);
+            }
+            if ((flags & TOP) != 0) {
+                listener.clustersFilled(i, j, root, filledRoots, filled);
+            }
+            if (percolated) {
+                listener.percolated();
             }
         }
     }
 
+    // listener is sent the events of every later open, after those added before it
+    public void addListener(PercolationListener listener) {
+        if (listener == null) {
+            throw new NullPointerException();
+        }
+        PercolationListener[] more = Arrays.copyOf(listeners, listeners.length + 1);
+        more[listeners.length] = listener;
+        listeners = more;
+    }
+
+    // removes listener if it was added; returns false if it wasn't
+    public boolean removeListener(PercolationListener listener) {
+        for (int k = 0; k < listeners.length; ++k) {
+            if (listeners[k] == listener) {
+                PercolationListener[] fewer = new PercolationListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, fewer, 0, k);
+                System.arraycopy(listeners, k + 1, fewer, k, fewer.length - k);
+                listeners = fewer;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // root of the cluster of open site (i, j), as listeners see it, or -1
+    // if the site is blocked
+    public int cluster(int i, int j) {
+        verifyIndex(i, j);
+        int slot = slot(i, j);
+        return sites.get(slot) ? layout.index(clusters.find(slot), N) : -1;
+    }
+
+    // closes every site again, as after construction, reusing all arrays;
+    // listeners stay registered
+    public void reset() {
+        int slots = sites.size();
+        for (int slot = sites.nextSetBit(0, slots); slot != -1; slot = sites.nextSetBit(slot + 1, slots)) {
+            touches[slot] = 0;
+        }
+        sites.clear();
+        clusters.reset();
+        percolates = false;
+        percolatesHorizontally = false;
+        openSites = 0;
+        openClusters = 0;
+        fullSites = 0;
+        largestCluster = 0;
+        sumOfSquaredSizes = 0;
+    }
+
     public boolean isOpen(int i, int j) {
         verifyIndex(i, j);
-        return sites[getIndex(i, j)];
+        return sites.get(slot(i, j));
     }
 
     public boolean isFull(int i, int j) {
         verifyIndex(i, j);
-        return fullSites.connected(virtualTop, getIndex(i, j));
+        int slot = slot(i, j);
+        return sites.get(slot) && (touches[clusters.find(slot)] & TOP) != 0;
     }
 
     public boolean percolates() {
-        return percolatingSites.connected(virtualTop, virtualBottom);
+        return percolates;
     }
 
-    private int getIndex(int i, int j) {
-        return (i - 1) * N + (j - 1);
+    // whether open sites connect the left column to the right one: the
+    // crossing percolates() asks for, turned by a quarter
+    public boolean percolatesHorizontally() {
+        return percolatesHorizontally;
     }
 
-    private void verifyIndex(int i, int j) {
-        if (!validIndex(i, j)) {
-            throw new IndexOutOfBoundsException();
-        }
+    // number of open sites in the grid
+    public int numberOfOpenSites() {
+        return openSites;
     }
 
-    private boolean validIndex(int i, int j) {
-        return 1 <= i && i <= N && 1 <= j && j <= N;
+    // number of clusters of open sites
+    public int numberOfClusters() {
+        return openClusters;
     }
 
-    private Pair[] neighbours(int i, int j) {
-        Pair[] all = new Pair[4];
-        all[0] = new Pair(i - 1, j);
-        all[1] = new Pair(i + 1, j);
-        all[2] = new Pair(i, j - 1);
-        all[3] = new Pair(i, j + 1);
+    // number of open sites connected to the top row
+    public int numberOfFullSites() {
+        return fullSites;
+    }
 
-        boolean[] validIndices = new boolean [4];
-        int numValid = 0;
-        for (int pi = 0; pi < all.length; ++pi) {
-            if (validIndex(all[pi].getI(), all[pi].getJ())) {
-                validIndices[pi] = true;
-                numValid++;
-            }
+    // number of open sites in row i; a word at a time in row-major layout,
+    // a site at a time in the others
+    public int numberOfOpenSites(int i) {
+        verifyIndex(i, 1);
+        if (layout == SiteLayout.ROW_MAJOR) {
+            int first = getIndex(i, 1);
+            return sites.cardinality(first, first + N);
+        }
+        int count = 0;
+        for (int j = 1; j <= N; ++j) {
+            if (sites.get(slot(i, j))) count++;
         }
+        return count;
+    }
 
-        Pair[] valid = new Pair[numValid];
-        int ind = 0;
-        for (int vi = 0; vi < validIndices.length; ++vi) {
-            if (validIndices[vi]) {
-                valid[ind] = all[vi];
-                ++ind;
+    // smallest column k >= j such that site (i, k) is open, or -1 if there
+    // is none; iterates over the open sites of row i with
+    //   for (int k = nextOpenSite(i, 1); k != -1; k = nextOpenSite(i, k + 1))
+    public int nextOpenSite(int i, int j) {
+        verifyIndex(i, 1);
+        if (j > N) return -1;
+        if (j < 1) j = 1;
+        if (layout != SiteLayout.ROW_MAJOR) {
+            for (; j <= N; ++j) {
+                if (sites.get(slot(i, j))) return j;
             }
+            return -1;
         }
+        int first = getIndex(i, 1);
+        int index = sites.nextSetBit(first + j - 1, first + N);
+        return index == -1 ? -1 : index - first + 1;
+    }
 
-        return valid;
+    // grid size N
+    int size() {
+        return N;
     }
 
-    private class Pair {
-        private final int i;
-        private final int j;
+    // number of sites in the largest cluster of open sites
+    public int largestClusterSize() {
+        return largestCluster;
+    }
 
-        public Pair(int i, int j) {
-            this.i = i;
-            this.j = j;
-        }
+    // sum of the squared sizes of all clusters of open sites
+    long sumOfSquaredClusterSizes() {
+        return sumOfSquaredSizes;
+    }
+
+    private int getIndex(int i, int j) {
+        return (i - 1) * N + (j - 1);
+    }
+
+    private int slot(int i, int j) {
+        return layout.slot(i - 1, j - 1, N);
+    }
 
-        public int getI() {
-            return i;
+    private void verifyIndex(int i, int j) {
+        if (!validIndex(i, j)) {
+            throw new IndexOutOfBoundsException();
         }
+    }
 
-        public int getJ() {
-            return j;
+    private boolean validIndex(int i, int j) {
+        return 1 <= i && i <= N && 1 <= j && j <= N;
+    }
+
+    // unions open neighbour slot n into the component of slot index,
+    // returns n's flags
+    private int join(int index, int n) {
+        if (!sites.get(n)) return 0;
+        int nRoot = clusters.find(n);
+        int root = clusters.find(index);
+        if (nRoot != root) {
+            long a = clusters.size(nRoot);
+            long b = clusters.size(root);
+            // (a + b)^2 replaces a^2 + b^2
+            sumOfSquaredSizes += 2 * a * b;
+            openClusters--;
+            if ((touches[nRoot] & TOP) == 0) joinedNotFull += a;
+            clusters.union(nRoot, root);
+            if (listeners.length != 0) {
+                int merged = clusters.find(root);
+                mergedRoots[merges] = nRoot;
+                mergedFlags[merges] = touches[nRoot];
+                absorbedRoots[merges] = merged == nRoot ? root : nRoot;
+                ++merges;
+            }
         }
+        return touches[nRoot];
     }
 }
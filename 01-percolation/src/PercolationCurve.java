@@ -0,0 +1,154 @@
+import java.util.SplittableRandom;
+
+/**
+ *  Newman-Ziff estimate of percolation observables as functions of the
+ *  probability p that a site is open.
+ *  <p>
+ *  Each trial opens all N*N sites of a {@link Percolation} in random order
+ *  and records, after every n opened sites, whether the grid percolates,
+ *  the size of the largest cluster and the mean cluster size. Averaged over
+ *  trials these give the observables at a fixed number n of open sites; the
+ *  value at probability p is their average weighted by the binomial
+ *  distribution of n, so one pass yields the whole curve.
+ *  <p>
+ *  The mean cluster size is the mean size of the cluster containing a
+ *  randomly chosen open site that is not in the largest cluster.
+ */
+public class PercolationCurve {
+    private final int T;
+    private final double[] spanning;   // spanning[n] = trials percolating at n
+    private final double[] largest;    // largest[n] = sum of largest cluster sizes
+    private final double[] mean;       // mean[n] = sum of mean cluster sizes
+
+    // perform T Newman-Ziff trials on an N-by-N grid
+    public PercolationCurve(int N, int T) {
+        this(N, T, UnionFindStrategy.PATH_HALVING, new SplittableRandom().nextLong());
+    }
+
+    public PercolationCurve(int N, int T, UnionFindStrategy strategy, long seed) {
+        if (N < 1 || T < 1) {
+            throw new IllegalArgumentException();
+        }
+
+        this.T = T;
+        int sites = N * N;
+        spanning = new double[sites + 1];
+        largest = new double[sites + 1];
+        mean = new double[sites + 1];
+
+        for (int t = 0; t < T; ++t) {
+            SplittableRandom random = new SplittableRandom(PercolationStats.trialSeed(seed, t));
+            SitePermutation order = new SitePermutation(sites, random);
+            Percolation percolation = new Percolation(N, strategy);
+            for (int n = 1; n <= sites; ++n) {
+                percolation.openIndex(order.next());
+                if (percolation.percolates()) spanning[n]++;
+                long big = percolation.largestClusterSize();
+                largest[n] += big;
+                if (n > big) {
+                    mean[n] += (percolation.sumOfSquaredClusterSizes() - big * big) / (double) (n - big);
+                }
+            }
+        }
+    }
+
+    // number of sites in the grid
+    public int sites() {
+        return spanning.length - 1;
+    }
+
+    // probability that the grid percolates with exactly n open sites
+    public double spanningProbability(int n) {
+        return spanning[verifyCount(n)] / T;
+    }
+
+    // expected size of the largest cluster with exactly n open sites
+    public double largestClusterSize(int n) {
+        return largest[verifyCount(n)] / T;
+    }
+
+    // expected mean cluster size with exactly n open sites
+    public double meanClusterSize(int n) {
+        return mean[verifyCount(n)] / T;
+    }
+
+    // probability that the grid percolates when each site is open with probability p
+    public double spanningProbability(double p) {
+        return convolve(spanning, p);
+    }
+
+    // expected size of the largest cluster when each site is open with probability p
+    public double largestClusterSize(double p) {
+        return convolve(largest, p);
+    }
+
+    // expected mean cluster size when each site is open with probability p
+    public double meanClusterSize(double p) {
+        return convolve(mean, p);
+    }
+
+    // test client: prints the curve at the given number of points
+    public static void main(String[] args) {
+        if (args.length < 2 || args.length > 3) {
+            StdOut.printf("Need 2 arguments: N and T, and optionally number of points%n");
+            return;
+        }
+
+        int N = Integer.parseInt(args[0]);
+        int T = Integer.parseInt(args[1]);
+        int points = 20;
+        if (args.length > 2) points = Integer.parseInt(args[2]);
+
+        PercolationCurve curve = new PercolationCurve(N, T);
+        StdOut.printf("%8s %12s %12s %12s%n", "p", "spanning", "largest", "mean size");
+        for (int k = 0; k <= points; ++k) {
+            double p = (double) k / points;
+            StdOut.printf("%8.4f %12.6f %12.2f %12.4f%n", p,
+                    curve.spanningProbability(p),
+                    curve.largestClusterSize(p),
+                    curve.meanClusterSize(p));
+        }
+    }
+
+    // sum over n of B(M, n, p) * totals[n] / T, where M is the number of sites;
+    // binomial weights are built outwards from the mode by their ratios and
+    // normalized at the end, so nothing under- or overflows; terms too small
+    // to change the sum in double precision are skipped
+    private double convolve(double[] totals, double p) {
+        if (!(0 <= p && p <= 1)) {
+            throw new IllegalArgumentException();
+        }
+        int M = sites();
+        if (p == 0) return totals[0] / T;
+        if (p == 1) return totals[M] / T;
+
+        int mode = (int) Math.min(M, Math.floor((M + 1) * p));
+        double odds = p / (1 - p);
+        double weights = 1;
+        double sum = totals[mode];
+
+        double b = 1;
+        for (int n = mode + 1; n <= M; ++n) {
+            b *= odds * (M - n + 1) / n;
+            if (b < 1e-17 * weights) break;
+            weights += b;
+            sum += b * totals[n];
+        }
+        b = 1;
+        for (int n = mode - 1; n >= 0; --n) {
+            b *= (n + 1) / (odds * (M - n));
+            if (b < 1e-17 * weights) break;
+            weights += b;
+            sum += b * totals[n];
+        }
+
+        return sum / weights / T;
+    }
+
+    private int verifyCount(int n) {
+        if (n < 0 || n > sites()) {
+            throw new IndexOutOfBoundsException();
+        }
+        return n;
+    }
+}
@@ -0,0 +1,173 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ *  Percolation input file read into primitive arrays: the grid size N
+ *  followed by the sites (row i, column j) to open, as whitespace-separated
+ *  integers, the format {@link PercolationVisualizer} reads.
+ *  <p>
+ *  The file is read once through a <tt>FileChannel</tt> into a direct
+ *  buffer and parsed byte by byte, without the <tt>Scanner</tt> behind
+ *  <tt>In.readInt</tt>, so long open logs load in time close to their size.
+ */
+public class PercolationInput {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final int N;
+    private final int[] rows;
+    private final int[] cols;
+
+    private PercolationInput(int N, int[] rows, int[] cols) {
+        this.N = N;
+        this.rows = rows;
+        this.cols = cols;
+    }
+
+    public static PercolationInput read(String filename) throws IOException {
+        return read(Paths.get(filename));
+    }
+
+    public static PercolationInput read(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            Parser parser = new Parser(channel);
+            if (!parser.hasNext()) {
+                throw new IllegalArgumentException("missing grid size in " + file);
+            }
+            int N = parser.next();
+
+            int[] rows = new int[1024];
+            int[] cols = new int[1024];
+            int count = 0;
+            while (parser.hasNext()) {
+                int i = parser.next();
+                if (!parser.hasNext()) {
+                    throw new IllegalArgumentException("row " + i + " without column in " + file);
+                }
+                if (count == rows.length) {
+                    rows = Arrays.copyOf(rows, 2 * count);
+                    cols = Arrays.copyOf(cols, 2 * count);
+                }
+                rows[count] = i;
+                cols[count] = parser.next();
+                ++count;
+            }
+            return new PercolationInput(N, Arrays.copyOf(rows, count), Arrays.copyOf(cols, count));
+        } finally {
+            channel.close();
+        }
+    }
+
+    // grid size
+    public int size() {
+        return N;
+    }
+
+    // number of sites to open
+    public int count() {
+        return rows.length;
+    }
+
+    public int[] rows() {
+        return rows;
+    }
+
+    public int[] cols() {
+        return cols;
+    }
+
+    // 0-based row-major indices of the sites, as Percolation.openAll takes them
+    public int[] indices() {
+        int[] indices = new int[rows.length];
+        for (int k = 0; k < rows.length; ++k) {
+            if (rows[k] < 1 || rows[k] > N || cols[k] < 1 || cols[k] > N) {
+                throw new IndexOutOfBoundsException();
+            }
+            indices[k] = (rows[k] - 1) * N + (cols[k] - 1);
+        }
+        return indices;
+    }
+
+    // replays a file and prints whether the grid percolates
+    public static void main(String[] args) throws IOException {
+        Stopwatch stopwatch = new Stopwatch();
+        PercolationInput input = read(args[0]);
+        double parsed = stopwatch.elapsedTime();
+        Percolation perc = new Percolation(input.size(), UnionFindStrategy.PATH_HALVING);
+        perc.openAll(input.rows(), input.cols());
+        double total = stopwatch.elapsedTime();
+
+        StdOut.printf("%d sites opened on a %d-by-%d grid: %s%n", input.count(), input.size(), input.size(),
+                perc.percolates() ? "percolates" : "does not percolate");
+        StdOut.printf("parsing %.3f s, opening %.3f s%n", parsed, total - parsed);
+    }
+
+    // reads non-negative or negative decimal integers separated by anything else
+    private static class Parser {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private boolean eof;
+
+        public Parser(FileChannel channel) {
+            this.channel = channel;
+            buffer.flip();
+        }
+
+        public boolean hasNext() throws IOException {
+            while (true) {
+                while (buffer.hasRemaining()) {
+                    byte b = buffer.get(buffer.position());
+                    if (b == '-' || (b >= '0' && b <= '9')) return true;
+                    if (b > ' ') {
+                        throw new IllegalArgumentException("unexpected character '" + (char) b + "'");
+                    }
+                    buffer.get();
+                }
+                if (!fill()) return false;
+            }
+        }
+
+        // call only after hasNext returned true
+        public int next() throws IOException {
+            boolean negative = false;
+            if (buffer.get(buffer.position()) == '-') {
+                negative = true;
+                buffer.get();
+            }
+            long value = 0;
+            int digits = 0;
+            while (buffer.hasRemaining() || fill()) {
+                byte b = buffer.get(buffer.position());
+                if (b < '0' || b > '9') break;
+                buffer.get();
+                value = 10 * value + (b - '0');
+                if (value > Integer.MAX_VALUE + 1L) {
+                    throw new IllegalArgumentException("integer out of range");
+                }
+                ++digits;
+            }
+            if (digits == 0) {
+                throw new IllegalArgumentException("'-' without digits");
+            }
+            value = negative ? -value : value;
+            if (value > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("integer out of range");
+            }
+            return (int) value;
+        }
+
+        private boolean fill() throws IOException {
+            if (eof) return false;
+            buffer.compact();
+            int read = channel.read(buffer);
+            buffer.flip();
+            if (read == -1) eof = true;
+            return buffer.hasRemaining();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/**
+ *  Receives the changes made by {@link Percolation#open}, so that renderers,
+ *  counters and loggers can follow a grid at a cost proportional to what
+ *  changed instead of polling every site after each open.
+ *  <p>
+ *  Events are sent once <tt>open</tt> has finished updating the grid, so
+ *  queries on it from inside a callback see the state after the open. They
+ *  come in this order, and only the first when the site joins no cluster:
+ *  <tt>siteOpened</tt>, one <tt>clustersMerged</tt> per cluster it joined,
+ *  <tt>clustersFilled</tt> if the site is full, <tt>percolated</tt> if the
+ *  grid just started to percolate. Opening a site that is already open sends
+ *  nothing.
+ *  <p>
+ *  Clusters are named by their root, the 0-based row-major index
+ *  (i - 1) * N + (j - 1) that {@link Percolation#cluster} returns for all of
+ *  their sites; the root of a cluster may change when it is merged. Arrays
+ *  passed to a callback are reused by the next open and must not be kept.
+ *  All methods do nothing by default.
+ */
+public interface PercolationListener {
+
+    // site (i, j) was opened
+    default void siteOpened(int i, int j) {
+    }
+
+    // the cluster with root absorbed is now part of the cluster with root
+    // root, which holds the opened site
+    default void clustersMerged(int root, int absorbed) {
+    }
+
+    // opened site (i, j) is full, in the cluster with root root; the open
+    // sites that became full with it are those of the clusters that had
+    // roots formerRoots[0..count) before the open
+    default void clustersFilled(int i, int j, int root, int[] formerRoots, int count) {
+    }
+
+    // the grid percolates, for the first time
+    default void percolated() {
+    }
+}
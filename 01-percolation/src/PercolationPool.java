@@ -0,0 +1,62 @@
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ *  Idle {@link Percolation} grids kept for reuse, per grid size, so that
+ *  repeated trials on the same N reset a grid instead of allocating one:
+ *  at N = 2000 a fresh grid is some 36 MB of union-find, flags and bits.
+ *  <p>
+ *  <tt>acquire</tt> hands out a grid with every site closed and
+ *  <tt>release</tt> resets it and keeps it, up to <tt>maxIdle</tt> grids
+ *  per size. Release only grids acquired from the same pool, with their
+ *  listeners removed. All methods are thread-safe.
+ */
+public class PercolationPool {
+    private final UnionFindStrategy strategy;
+    private final int maxIdle;
+    private final Map<Integer, ArrayDeque<Percolation>> idle = new HashMap<Integer, ArrayDeque<Percolation>>();
+
+    public PercolationPool(UnionFindStrategy strategy, int maxIdle) {
+        if (maxIdle < 0) {
+            throw new IllegalArgumentException();
+        }
+        this.strategy = strategy;
+        this.maxIdle = maxIdle;
+    }
+
+    // an N-by-N grid with all sites closed, reused if one is idle
+    public Percolation acquire(int N) {
+        Percolation percolation;
+        synchronized (this) {
+            ArrayDeque<Percolation> grids = idle.get(N);
+            percolation = grids == null ? null : grids.poll();
+        }
+        return percolation != null ? percolation : new Percolation(N, strategy);
+    }
+
+    // resets percolation and keeps it for the next acquire of its size,
+    // unless maxIdle grids of that size are idle already
+    public void release(Percolation percolation) {
+        percolation.reset();
+        synchronized (this) {
+            ArrayDeque<Percolation> grids = idle.get(percolation.size());
+            if (grids == null) {
+                grids = new ArrayDeque<Percolation>();
+                idle.put(percolation.size(), grids);
+            }
+            if (grids.size() < maxIdle) grids.push(percolation);
+        }
+    }
+
+    // drops every idle grid
+    public synchronized void clear() {
+        idle.clear();
+    }
+
+    // number of idle N-by-N grids
+    public synchronized int idle(int N) {
+        ArrayDeque<Percolation> grids = idle.get(N);
+        return grids == null ? 0 : grids.size();
+    }
+}
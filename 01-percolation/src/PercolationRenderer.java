@@ -0,0 +1,228 @@
+/****************************************************************************
+ *  Compilation:  javac PercolationRenderer.java
+ *  Dependencies: Percolation.java PercolationListener.java StdDraw.java
+ *
+ *  Incremental drawing of an N-by-N percolation system: after each opened
+ *  site only the sites whose color changed are repainted, instead of the
+ *  whole grid.
+ *
+ ****************************************************************************/
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import javax.swing.JComponent;
+import javax.swing.JFrame;
+import javax.swing.SwingUtilities;
+
+/**
+ *  Draws full sites in light blue, open sites that aren't full in white and
+ *  blocked sites in black, like {@link PercolationVisualizer#draw}, but keeps
+ *  the colors it has drawn and repaints only what changed since the last call.
+ *  <p>
+ *  The renderer listens to the <tt>Percolation</tt> it draws and updates
+ *  its colors from inside every <tt>open</tt>. Opening a site changes its
+ *  own color and, if it joins a full cluster to sites that were not full,
+ *  the color of all of those. They are all open neighbours of one another,
+ *  so a flood fill from the opened site through open sites not yet drawn
+ *  as full finds them, at a cost proportional to the number of sites that
+ *  change.
+ *  <p>
+ *  Up to N = {@value #MAX_SQUARES} sites are drawn as <tt>StdDraw</tt>
+ *  squares; larger grids are drawn one pixel per site into a
+ *  <tt>BufferedImage</tt> shown in a window of its own, scaled to fit.
+ */
+public class PercolationRenderer implements PercolationListener {
+    // largest grid drawn with StdDraw squares
+    public static final int MAX_SQUARES = 200;
+
+    private static final byte BLOCKED = 0;
+    private static final byte OPEN = 1;
+    private static final byte FULL = 2;
+
+    private final Percolation perc;
+    private final int N;
+    private final byte[] shown;      // shown[k] = color drawn for site k
+    private int[] changed = new int[16];
+    private int changedCount;
+
+    // pixel mode only
+    private final BufferedImage image;
+    private final int[] pixels;      // pixels[k] = RGB of site k in image
+    private final JFrame frame;
+
+    public PercolationRenderer(Percolation perc, int N) {
+        this(perc, N, N > MAX_SQUARES);
+    }
+
+    public PercolationRenderer(Percolation perc, int N, boolean asPixels) {
+        this.perc = perc;
+        this.N = N;
+        shown = new byte[N * N];
+
+        if (asPixels) {
+            image = new BufferedImage(N, N, BufferedImage.TYPE_INT_RGB);
+            pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+            frame = new JFrame();
+            final int side = Math.max(512, Math.min(N, 1024));
+            SwingUtilities.invokeLater(new Runnable() {
+                public void run() {
+                    frame.setContentPane(new ImageView(side));
+                    frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+                    frame.setResizable(true);
+                    frame.pack();
+                    frame.setVisible(true);
+                }
+            });
+        } else {
+            image = null;
+            pixels = null;
+            frame = null;
+        }
+        drawAll();
+        perc.addListener(this);
+    }
+
+    // repaints the whole grid from scratch
+    public void drawAll() {
+        changedCount = 0;
+        for (int k = 0; k < shown.length; ++k) {
+            shown[k] = color(k / N + 1, k % N + 1);
+        }
+
+        if (image == null) {
+            StdDraw.clear();
+            StdDraw.setPenColor(StdDraw.BLACK);
+            StdDraw.setXscale(0, N);
+            StdDraw.setYscale(0, N);
+            StdDraw.filledSquare(N/2.0, N/2.0, N/2.0);
+        } else {
+            Arrays.fill(pixels, Color.BLACK.getRGB());
+        }
+        for (int k = 0; k < shown.length; ++k) {
+            if (shown[k] != BLOCKED) paint(k);
+        }
+        drawStatus();
+    }
+
+    // repaints what changed after site (i, j) was opened
+    @Override
+    public void siteOpened(int i, int j) {
+        int start = (i - 1) * N + (j - 1);
+        byte now = color(i, j);
+        changedCount = 0;
+        if (now == shown[start]) return;
+        shown[start] = now;
+        push(start);
+
+        if (now == FULL) {
+            // flood fill the newly full sites
+            for (int k = 0; k < changedCount; ++k) {
+                int site = changed[k];
+                int row = site / N;
+                int col = site % N;
+                if (row > 0)     fill(site - N);
+                if (row < N - 1) fill(site + N);
+                if (col > 0)     fill(site - 1);
+                if (col < N - 1) fill(site + 1);
+            }
+        }
+
+        for (int k = 0; k < changedCount; ++k) {
+            paint(changed[k]);
+        }
+        drawStatus();
+    }
+
+    // number of sites repainted after the last open
+    public int repainted() {
+        return changedCount;
+    }
+
+    // shows the current frame and waits for t milliseconds
+    public void show(int t) {
+        if (image == null) {
+            StdDraw.show(t);
+            return;
+        }
+        final String title = N + "-by-" + N + ": " + perc.numberOfOpenSites() + " open sites, "
+                + (perc.percolates() ? "percolates" : "does not percolate");
+        SwingUtilities.invokeLater(new Runnable() {
+            public void run() {
+                frame.setTitle(title);
+                frame.repaint();
+            }
+        });
+        try {
+            Thread.sleep(t);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // open neighbour of a newly full site: full as well
+    private void fill(int site) {
+        if (shown[site] != OPEN) return;
+        shown[site] = FULL;
+        push(site);
+    }
+
+    private void push(int site) {
+        if (changedCount == changed.length) {
+            changed = Arrays.copyOf(changed, 2 * changedCount);
+        }
+        changed[changedCount++] = site;
+    }
+
+    private byte color(int i, int j) {
+        if (perc.isFull(i, j)) return FULL;
+        if (perc.isOpen(i, j)) return OPEN;
+        return BLOCKED;
+    }
+
+    private void paint(int site) {
+        Color color = shown[site] == FULL ? StdDraw.BOOK_LIGHT_BLUE
+                    : shown[site] == OPEN ? StdDraw.WHITE
+                    : StdDraw.BLACK;
+        if (image == null) {
+            int row = site / N + 1;
+            int col = site % N + 1;
+            StdDraw.setPenColor(color);
+            StdDraw.filledSquare(col - 0.5, N - row + 0.5, 0.45);
+        } else {
+            pixels[site] = color.getRGB();
+        }
+    }
+
+    // status text below the grid; in pixel mode it goes in the window title
+    // when the frame is shown
+    private void drawStatus() {
+        if (image != null) return;
+        // erase previous status text
+        StdDraw.setPenColor(StdDraw.WHITE);
+        StdDraw.filledRectangle(N/2.0, -N*.025, N/2.0, N*.02);
+        StdDraw.setFont(new Font("SansSerif", Font.PLAIN, 12));
+        StdDraw.setPenColor(StdDraw.BLACK);
+        StdDraw.text(.25*N, -N*.025, perc.numberOfOpenSites() + " open sites");
+        if (perc.percolates()) StdDraw.text(.75*N, -N*.025, "percolates");
+        else                   StdDraw.text(.75*N, -N*.025, "does not percolate");
+    }
+
+    // the image, scaled to the component with nearest-neighbour sampling
+    private class ImageView extends JComponent {
+        private static final long serialVersionUID = 1L;
+
+        public ImageView(int side) {
+            setPreferredSize(new Dimension(side, side));
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            g.drawImage(image, 0, 0, getWidth(), getHeight(), null);
+        }
+    }
+}
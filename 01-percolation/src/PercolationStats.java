@@ -1,125 +1,497 @@
+import java.util.ArrayDeque;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
 public class PercolationStats {
+    // smallest batch of an adaptive run, enough for a usable stddev; batches
+    // do not depend on the number of threads, so neither do the results
+    private static final int FIRST_BATCH = 64;
+    // trials run one after another and summarized together; results are
+    // merged in a tree over fixed ranges of trials, so they do not depend on
+    // how the ranges are spread over threads
+    private static final int LEAF_TRIALS = 16;
+    // grids of a STRATIFIED trial, one per stratum of opening times
+    private static final int STRATA = 4;
+
+    /**
+     *  How a trial turns random site orders into its threshold sample. Every
+     *  estimator is unbiased; they differ in the grids opened per trial and in
+     *  the variance of the sample, which <tt>effectiveSampleSize</tt> compares
+     *  to that of a plain trial and <tt>effectiveSamplesPerGrid</tt> to that of
+     *  as many plain grids.
+     *  <p>
+     *  Only <tt>CONTROL_VARIATE</tt> pays off, at about 1.6 plain samples per
+     *  grid. <tt>ANTITHETIC</tt> and <tt>STRATIFIED</tt> give no measurable
+     *  variance reduction per grid: their samples are worth about as many
+     *  plain ones as the grids they open, at the same cost.
+     */
+    public enum Estimator {
+        // one grid opened in a random order
+        PLAIN(1),
+        // two grids: a random order, then the same order reversed with each
+        // site mirrored across the diagonal. Once K sites percolate, the
+        // closed ones cannot cross sideways, so the second grid needs more
+        // than N*N - K sites: an early first run pushes the second one late
+        ANTITHETIC(2),
+        // STRATA grids on one random order, each started at the next fraction
+        // 1/STRATA of it and wrapping around, so that every site is opened
+        // once in each stratum of opening times
+        STRATIFIED(STRATA),
+        // one grid, opened until it percolates both ways. The horizontal
+        // threshold minus the vertical one has mean 0 by symmetry and is the
+        // control; by the same symmetry its best coefficient is 1/2, which
+        // makes the sample the mean of the two thresholds
+        CONTROL_VARIATE(1);
+
+        private final int grids;
+
+        Estimator(int grids) {
+            this.grids = grids;
+        }
+
+        // grids opened per trial
+        public int grids() {
+            return grids;
+        }
+    }
+
     private int N;
     private int T;
-    private double[] openedFractions;
+    private UnionFindStrategy strategy;
+    private long seed;
+    private int threads;
+    private Estimator estimator;
+    private RunningStats openedFractions;
+    private RunningStats plainFractions;   // the first grid of every trial, run plainly
+    private RunningStats monitor;
+    private PercolationPool grids;     // one grid per running leaf, reset between trials
+    private ArrayDeque<SitePermutation> orders;   // idle site orders of N*N sites, likewise
 
     // perform T independent computational experiments on an N-by-N grid
     public PercolationStats(int N, int T) {
-        if (N < 1 || T < 1) {
+        this(N, T, UnionFindStrategy.WEIGHTED_QUICK_UNION);
+    }
+
+    // same as above, with the given union-find implementation
+    public PercolationStats(int N, int T, UnionFindStrategy strategy) {
+        this(N, T, strategy, new SplittableRandom().nextLong(), 1);
+    }
+
+    // same as above, with trials spread over the given number of threads;
+    // results depend only on the seed, not on the number of threads
+    public PercolationStats(int N, int T, UnionFindStrategy strategy, long seed, int threads) {
+        this(N, T, strategy, seed, threads, null);
+    }
+
+    // same as above, also adding every result to monitor as soon as its group
+    // of trials completes, so that another thread can follow the run
+    public PercolationStats(int N, int T, UnionFindStrategy strategy, long seed, int threads,
+                            RunningStats monitor) {
+        this(N, T, strategy, seed, threads, monitor, Estimator.PLAIN);
+    }
+
+    // same as above, with each trial's sample drawn by the given estimator
+    public PercolationStats(int N, int T, UnionFindStrategy strategy, long seed, int threads,
+                            RunningStats monitor, Estimator estimator) {
+        this(N, strategy, seed, threads, estimator);
+        this.monitor = monitor;
+        if (T < 1) {
+            throw new IllegalArgumentException();
+        }
+
+        ForkJoinPool pool = newPool();
+        try {
+            runTrials(T, pool);
+        } finally {
+            if (pool != null) pool.shutdown();
+            releaseGrids();
+        }
+    }
+
+    // no trials run yet; ScalingSweep adds them with batch and merge
+    PercolationStats(int N, UnionFindStrategy strategy, long seed, int threads,
+                     Estimator estimator) {
+        if (N < 1 || threads < 1 || estimator == null) {
             throw new IllegalArgumentException();
         }
 
         this.N = N;
-        this.T = T;
+        this.strategy = strategy;
+        this.seed = seed;
+        this.threads = threads;
+        this.estimator = estimator;
 
-        openedFractions = new double[T];
+        openedFractions = new RunningStats();
+        plainFractions = new RunningStats();
+        grids = new PercolationPool(strategy, threads);
+        orders = new ArrayDeque<SitePermutation>();
+    }
+
+    // runs trials in batches until the 95% confidence interval extends at
+    // most halfWidth on either side of the mean, or until budgetMillis have
+    // passed; trials() tells how many it took
+    public static PercolationStats untilHalfWidth(int N, double halfWidth, long budgetMillis,
+                                                  UnionFindStrategy strategy, long seed, int threads) {
+        return untilHalfWidth(N, halfWidth, budgetMillis, strategy, seed, threads, Estimator.PLAIN);
+    }
+
+    // same as above, with each trial's sample drawn by the given estimator
+    public static PercolationStats untilHalfWidth(int N, double halfWidth, long budgetMillis,
+                                                  UnionFindStrategy strategy, long seed, int threads,
+                                                  Estimator estimator) {
+        if (!(halfWidth > 0)) {
+            throw new IllegalArgumentException();
+        }
+        PercolationStats stats = new PercolationStats(N, strategy, seed, threads, estimator);
+        stats.runAdaptive(halfWidth, 0, budgetMillis);
+        return stats;
+    }
+
+    // same as above, with the half-width relative to the mean
+    public static PercolationStats untilRelativeError(int N, double relativeError, long budgetMillis,
+                                                      UnionFindStrategy strategy, long seed, int threads) {
+        return untilRelativeError(N, relativeError, budgetMillis, strategy, seed, threads, Estimator.PLAIN);
+    }
 
-        runTest();
+    // same as above, with each trial's sample drawn by the given estimator
+    public static PercolationStats untilRelativeError(int N, double relativeError, long budgetMillis,
+                                                      UnionFindStrategy strategy, long seed, int threads,
+                                                      Estimator estimator) {
+        if (!(relativeError > 0)) {
+            throw new IllegalArgumentException();
+        }
+        PercolationStats stats = new PercolationStats(N, strategy, seed, threads, estimator);
+        stats.runAdaptive(0, relativeError, budgetMillis);
+        return stats;
+    }
+
+    // number of trials run
+    public int trials() {
+        return T;
     }
 
     // sample mean of percolation threshold
     public double mean() {
-        return StdStats.mean(openedFractions);
+        return openedFractions.mean();
     }
 
     // sample standard deviation of percolation threshold
     public double stddev() {
-        return StdStats.stddev(openedFractions);
+        return openedFractions.stddev();
+    }
+
+    // summary of all trial results: min, max, quantiles and more
+    public RunningStats statistics() {
+        return openedFractions.copy();
     }
 
     // returns lower bound of the 95% confidence interval
     public double confidenceLo() {
-        return mean() - 1.96 * Math.sqrt(stddev()) / Math.sqrt(T);
+        return mean() - halfWidth();
     }
 
     // returns upper bound of the 95% confidence interval
     public double confidenceHi() {
-        return mean() + 1.96 * Math.sqrt(stddev()) / Math.sqrt(T);
+        return mean() + halfWidth();
+    }
+
+    // distance from the mean to either bound of the 95% confidence interval
+    public double halfWidth() {
+        return 1.96 * stddev() / Math.sqrt(T);
+    }
+
+    // number of plain trials whose mean would be as precise as this one:
+    // T times the variance of a plain sample over that of this estimator's.
+    // Exactly T for PLAIN
+    public double effectiveSampleSize() {
+        double variance = openedFractions.variance();
+        if (!(variance > 0)) return T;
+        return T * plainFractions.variance() / variance;
+    }
+
+    // effective sample size over the grids opened for it, which compares
+    // estimators at equal cost: 1 for PLAIN, above 1 only if the estimator
+    // reduces the variance by more than it multiplies the grids
+    public double effectiveSamplesPerGrid() {
+        return effectiveSampleSize() / ((double) T * estimator.grids());
     }
 
     // test client, described below
     public static void main(String[] args) {
-        if (args.length != 2) {
-            StdOut.printf("Need 2 arguments: N and T");
+        if (args.length < 2 || args.length > 6) {
+            StdOut.printf("Need 2 arguments: N and T, and optionally a union-find strategy, "
+                    + "number of threads, seed and estimator%n");
             return;
         }
 
         int N = Integer.parseInt(args[0]);
         int T = Integer.parseInt(args[1]);
+        UnionFindStrategy strategy = UnionFindStrategy.WEIGHTED_QUICK_UNION;
+        if (args.length > 2) strategy = UnionFindStrategy.valueOf(args[2]);
+        int threads = 1;
+        if (args.length > 3) threads = Integer.parseInt(args[3]);
+        long seed = new SplittableRandom().nextLong();
+        if (args.length > 4) seed = Long.parseLong(args[4]);
+        Estimator estimator = Estimator.PLAIN;
+        if (args.length > 5) estimator = Estimator.valueOf(args[5]);
 
-        PercolationStats percolationStats = new PercolationStats(N, T);
+        PercolationStats percolationStats = new PercolationStats(N, T, strategy, seed, threads,
+                                                                 null, estimator);
 
-        StdOut.printf("mean = %d", percolationStats.mean());
-        StdOut.printf("stddev = %d", percolationStats.stddev());
-        StdOut.printf("95%% confidence interval = %d, %d",
+        StdOut.printf("mean = %f%n", percolationStats.mean());
+        StdOut.printf("stddev = %f%n", percolationStats.stddev());
+        StdOut.printf("95%% confidence interval = %f, %f%n",
                 percolationStats.confidenceLo(),
                 percolationStats.confidenceHi());
+        if (estimator != Estimator.PLAIN) {
+            StdOut.printf("effective sample size = %.0f, %.2f per grid%n",
+                    percolationStats.effectiveSampleSize(), percolationStats.effectiveSamplesPerGrid());
+        }
     }
 
-    // thread unsafe!!!
-    private void runTest() {
-        double total = (double) N * N;
-        for (int t = 0; t < T; ++t) {
-            int opened = 0;
-            Pair[] randomIndices = randomPairs(N);
-            Percolation percolation = new Percolation(N);
-
-            while (!percolation.percolates()) {
-                try {
-                    int i = randomIndices[opened].getI() + 1;
-                    int j = randomIndices[opened].getJ() + 1;
-                    percolation.open(i, j);
-                    ++opened;
-                } catch (ArrayIndexOutOfBoundsException e) {
-                    StringBuilder indicesMessage = new StringBuilder();
-                    for (Pair index : randomIndices) {
-                        indicesMessage.append(index.toString());
-                        indicesMessage.append("%n");
-                    }
-
-                    throw new ArrayIndexOutOfBoundsException(indicesMessage.toString());
+    private void runAdaptive(double halfWidth, double relativeError, long budgetMillis) {
+        long deadline = System.currentTimeMillis() + budgetMillis;
+        ForkJoinPool pool = newPool();
+        try {
+            double target = halfWidth;
+            do {
+                runTrials(nextBatch(target), pool);
+                target = halfWidth > 0 ? halfWidth : relativeError * mean();
+            } while (halfWidth() > target && System.currentTimeMillis() < deadline);
+        } finally {
+            if (pool != null) pool.shutdown();
+            releaseGrids();
+        }
+    }
+
+    // trials of the next batch of a run aiming at the given half-width:
+    // FIRST_BATCH to begin with, then as many as should reach the target,
+    // since the half-width shrinks as 1/sqrt(T), but at most T more
+    int nextBatch(double target) {
+        if (T == 0) return FIRST_BATCH;
+        double current = halfWidth();
+        double needed = T * (current / target) * (current / target) - T;
+        return (int) Math.min(T, Math.max(FIRST_BATCH, Math.ceil(needed)));
+    }
+
+    // reserves the next count trials and returns the task that runs them, in
+    // whatever pool it is forked; its results go to merge, batches in order
+    ForkJoinTask<Results> batch(int count) {
+        int from = T;
+        T += count;
+        return new Trials(from, T);
+    }
+
+    void merge(Results results) {
+        openedFractions.merge(results.samples);
+        plainFractions.merge(results.plain);
+    }
+
+    // drops the idle grids and site orders kept for the trials of a run
+    void releaseGrids() {
+        grids.clear();
+        synchronized (orders) {
+            orders.clear();
+        }
+    }
+
+    // runs the next count trials, on the pool unless it is null
+    private void runTrials(int count, ForkJoinPool pool) {
+        int from = T;
+        T += count;
+        merge(pool == null ? runTrials(from, T) : pool.invoke(new Trials(from, T)));
+    }
+
+    // summary of trials [lo, hi), merged in the same tree as Trials
+    private Results runTrials(int lo, int hi) {
+        if (hi - lo <= LEAF_TRIALS) {
+            return runLeaf(lo, hi);
+        }
+        int mid = split(lo, hi);
+        Results left = runTrials(lo, mid);
+        left.merge(runTrials(mid, hi));
+        return left;
+    }
+
+    // trials of a leaf share one grid and one site permutation, both taken
+    // from the idle ones of earlier leaves, so that a leaf allocates nothing
+    private Results runLeaf(int lo, int hi) {
+        Results leaf = new Results();
+        Percolation percolation = grids.acquire(N);
+        SitePermutation sites = null;
+        try {
+            for (int t = lo; t < hi; ++t) {
+                SplittableRandom random = new SplittableRandom(trialSeed(seed, t));
+                if (sites == null) {
+                    sites = acquireOrder(random);
+                } else {
+                    sites.restart(random);
+                    percolation.reset();
                 }
+                leaf.samples.add(runSample(percolation, sites, leaf.plain));
             }
+        } finally {
+            grids.release(percolation);
+            if (sites != null) releaseOrder(sites);
+        }
+        if (monitor != null) monitor.merge(leaf.samples);
+        return leaf;
+    }
 
-            openedFractions[t] = opened / total;
+    // a permutation of the N*N sites drawn from random, reused if one is
+    // idle; it starts from the identity, so leaves do not depend on each other
+    private SitePermutation acquireOrder(SplittableRandom random) {
+        SitePermutation sites;
+        synchronized (orders) {
+            sites = orders.poll();
         }
+        if (sites == null) return new SitePermutation(N * N, random);
+        sites.reset(random);
+        return sites;
     }
 
-    private Pair[] randomPairs(int size) {
-        Pair[] pairs = new Pair[size * size];
-        for (int i = 0; i < pairs.length; ++i) {
-            pairs[i] = new Pair(i / size, i % size);
+    // keeps sites for the next leaf, up to one per thread
+    private void releaseOrder(SitePermutation sites) {
+        synchronized (orders) {
+            if (orders.size() < threads) orders.push(sites);
         }
-        // random swap
-        for (int i = 0; i < 10 * pairs.length; ++i) {
-            int first = StdRandom.uniform(pairs.length);
-            int second = StdRandom.uniform(pairs.length);
-            Pair tmp = pairs[second];
-            pairs[second] = pairs[first];
-            pairs[first] = tmp;
+    }
+
+    // splits a multiple of LEAF_TRIALS past lo, so the tree depends only on
+    // the range
+    private static int split(int lo, int hi) {
+        int leaves = (hi - lo + LEAF_TRIALS - 1) / LEAF_TRIALS;
+        return lo + leaves / 2 * LEAF_TRIALS;
+    }
+
+    private ForkJoinPool newPool() {
+        return threads == 1 ? null : new ForkJoinPool(threads);
+    }
+
+    // one sample of the estimator from a closed grid, adding the threshold
+    // of its first, plain run to plain
+    private double runSample(Percolation percolation, SitePermutation sites, RunningStats plain) {
+        if (estimator == Estimator.CONTROL_VARIATE) {
+            return runBothWays(percolation, sites, plain);
+        }
+        double first = runTrial(percolation, sites);
+        plain.add(first);
+        if (estimator == Estimator.PLAIN) return first;
+
+        // the other runs need the whole order
+        while (sites.hasNext()) {
+            sites.next();
+        }
+        if (estimator == Estimator.ANTITHETIC) {
+            return (first + runMirrored(percolation, sites)) / 2;
+        }
+        double sum = first;
+        for (int stratum = 1; stratum < STRATA; ++stratum) {
+            sum += runRotated(percolation, sites, (int) ((long) N * N * stratum / STRATA));
+        }
+        return sum / STRATA;
+    }
+
+    // opens sites until the grid percolates both down and sideways; adds the
+    // first threshold to plain and returns the mean of the two
+    private double runBothWays(Percolation percolation, SitePermutation sites, RunningStats plain) {
+        int vertical = 0;
+        int horizontal = 0;
+        for (int opened = 1; vertical == 0 || horizontal == 0; ++opened) {
+            percolation.openIndex(sites.next());
+            if (vertical == 0 && percolation.percolates()) vertical = opened;
+            if (horizontal == 0 && percolation.percolatesHorizontally()) horizontal = opened;
+        }
+        double n = (double) N * N;
+        plain.add(vertical / n);
+        return (vertical + horizontal) / (2 * n);
+    }
+
+    // resets the grid and opens the drawn order of sites backwards, each
+    // site mirrored across the diagonal, until it percolates
+    private double runMirrored(Percolation percolation, SitePermutation sites) {
+        percolation.reset();
+        int n = N * N;
+        int opened = 0;
+        while (!percolation.percolates()) {
+            int site = sites.get(n - 1 - opened);
+            percolation.openIndex(site % N * N + site / N);
+            ++opened;
         }
-        return pairs;
+        return opened / (double) n;
     }
 
-    private class Pair {
-        private final int i;
-        private final int j;
+    // resets the grid and opens the drawn order of sites from position
+    // offset on, wrapping around, until it percolates
+    private double runRotated(Percolation percolation, SitePermutation sites, int offset) {
+        percolation.reset();
+        int n = N * N;
+        int opened = 0;
+        while (!percolation.percolates()) {
+            percolation.openIndex(sites.get((offset + opened) % n));
+            ++opened;
+        }
+        return opened / (double) n;
+    }
 
-        public Pair(int i, int j) {
-            this.i = i;
-            this.j = j;
+    // opens sites of a closed grid until it percolates; trial t always sees
+    // the same random stream and follows the same trials of its leaf,
+    // whichever thread runs it
+    private double runTrial(Percolation percolation, SitePermutation sites) {
+        int opened = 0;
+        while (!percolation.percolates()) {
+            percolation.openIndex(sites.next());
+            ++opened;
         }
 
-        public String toString() {
-            return String.format("(%d, %d)", i, j);
+        return opened / ((double) N * N);
+    }
+
+    // SplitMix64 finalizer over the t-th step of a Weyl sequence, so that
+    // neighbouring trials get unrelated seeds
+    static long trialSeed(long seed, long t) {
+        long z = seed + (t + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // samples of a range of trials, and the plain thresholds among them
+    static class Results {
+        final RunningStats samples = new RunningStats();
+        final RunningStats plain = new RunningStats();
+
+        void merge(Results other) {
+            samples.merge(other.samples);
+            plain.merge(other.plain);
         }
+    }
+
+    // summary of trials [lo, hi)
+    private class Trials extends RecursiveTask<Results> {
+        private static final long serialVersionUID = 1L;
 
-        public int getI() {
-            return i;
+        private final int lo;
+        private final int hi;
+
+        public Trials(int lo, int hi) {
+            this.lo = lo;
+            this.hi = hi;
         }
 
-        public int getJ() {
-            return j;
+        @Override
+        protected Results compute() {
+            if (hi - lo <= LEAF_TRIALS) {
+                return runLeaf(lo, hi);
+            }
+            int mid = split(lo, hi);
+            Trials right = new Trials(mid, hi);
+            right.fork();
+            Results left = new Trials(lo, mid).compute();
+            left.merge(right.join());
+            return left;
         }
     }
 }
@@ -1,7 +1,8 @@
 /****************************************************************************
  *  Compilation:  javac PercolationVisualizer.java
  *  Execution:    java PercolationVisualizer input.txt
- *  Dependencies: Percolation.java StdDraw.java In.java
+ *  Dependencies: Percolation.java PercolationInput.java PercolationRenderer.java
+ *                StdDraw.java
  *
  *  This program takes the name of a file as a command-line argument.
  *  From that file, it
@@ -12,11 +13,13 @@
  *
  *  After each site is opened, it draws full sites in light blue,
  *  open sites (that aren't full) in white, and blocked sites in black,
- *  with with site (1, 1) in the upper left-hand corner.
+ *  with with site (1, 1) in the upper left-hand corner. Only the sites
+ *  that changed are redrawn; see PercolationRenderer.
  *
  ****************************************************************************/
 
 import java.awt.Font;
+import java.io.IOException;
 
 public class PercolationVisualizer {
 
@@ -31,20 +34,14 @@ public class PercolationVisualizer {
         StdDraw.setYscale(0, N);
         StdDraw.filledSquare(N/2.0, N/2.0, N/2.0);
 
-        // draw N-by-N grid
-        int opened = 0;
+        // draw open sites of N-by-N grid; blocked sites are the background
+        int opened = perc.numberOfOpenSites();
         for (int row = 1; row <= N; row++) {
-            for (int col = 1; col <= N; col++) {
-                if (perc.isFull(row, col)) {
+            for (int col = perc.nextOpenSite(row, 1); col != -1; col = perc.nextOpenSite(row, col + 1)) {
+                if (perc.isFull(row, col))
                     StdDraw.setPenColor(StdDraw.BOOK_LIGHT_BLUE);
-                    opened++;
-                }
-                else if (perc.isOpen(row, col)) {
-                    StdDraw.setPenColor(StdDraw.WHITE);
-                    opened++;
-                }
                 else
-                    StdDraw.setPenColor(StdDraw.BLACK);
+                    StdDraw.setPenColor(StdDraw.WHITE);
                 StdDraw.filledSquare(col - 0.5, N - row + 0.5, 0.45);
             }
         }
@@ -58,23 +55,23 @@ public class PercolationVisualizer {
 
     }
 
-    public static void main(String[] args) {
-        In in = new In(args[0]);      // input file
-        int N = in.readInt();         // N-by-N percolation system
+    public static void main(String[] args) throws IOException {
+        PercolationInput in = PercolationInput.read(args[0]);   // input file
+        int N = in.size();                                       // N-by-N percolation system
 
         // turn on animation mode
         StdDraw.show(0);
 
-        // repeatedly read in sites to open and draw resulting system
+        // open sites one by one; the renderer listens to perc and draws what
+        // changed, grids too large for squares show a frame per N sites opened
         Percolation perc = new Percolation(N);
-        draw(perc, N);
-        StdDraw.show(DELAY);
-        while (!in.isEmpty()) {
-            int i = in.readInt();
-            int j = in.readInt();
-            perc.open(i, j);
-            draw(perc, N);
-            StdDraw.show(DELAY);
+        PercolationRenderer renderer = new PercolationRenderer(perc, N);
+        int frame = N > PercolationRenderer.MAX_SQUARES ? N : 1;
+        renderer.show(DELAY);
+        for (int k = 0; k < in.count(); k++) {
+            perc.open(in.rows()[k], in.cols()[k]);
+            if ((k + 1) % frame == 0) renderer.show(DELAY);
         }
+        renderer.show(DELAY);
     }
 }
@@ -0,0 +1,67 @@
+/**
+ *  Quick-union by rank with path halving.
+ *  <p>
+ *  The rank of a root is an upper bound on the height of its tree and never
+ *  exceeds log N, so ranks are kept in a <tt>byte[]</tt> instead of the
+ *  <tt>int[]</tt> sizes used by {@link WeightedQuickUnionUF}. Component sizes
+ *  are still kept, for <tt>size</tt> queries only.
+ */
+public class RankedQuickUnionUF implements UnionFind {
+    private final int[] parent;  // parent[i] = parent of i
+    private final byte[] rank;   // rank[i] = rank of subtree rooted at i
+    private final int[] size;    // size[i] = number of sites in tree rooted at i
+    private int count;           // number of components
+
+    public RankedQuickUnionUF(int N) {
+        parent = new int[N];
+        rank = new byte[N];
+        size = new int[N];
+        reset();
+    }
+
+    public void reset() {
+        count = parent.length;
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+            rank[i] = 0;
+            size[i] = 1;
+        }
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public int find(int p) {
+        while (p != parent[p]) {
+            parent[p] = parent[parent[p]];
+            p = parent[p];
+        }
+        return p;
+    }
+
+    public int size(int p) {
+        return size[find(p)];
+    }
+
+    public boolean connected(int p, int q) {
+        return find(p) == find(q);
+    }
+
+    public void union(int p, int q) {
+        int i = find(p);
+        int j = find(q);
+        if (i == j) return;
+
+        // make root of smaller rank point to root of larger rank
+        if (rank[i] < rank[j]) {
+            int tmp = i;
+            i = j;
+            j = tmp;
+        }
+        parent[j] = i;
+        size[i] += size[j];
+        if (rank[i] == rank[j]) rank[i]++;
+        count--;
+    }
+}
@@ -0,0 +1,162 @@
+/**
+ *  Streaming summary of a sequence of values in constant memory: count,
+ *  Kahan-compensated sum, mean and variance by Welford's method, min, max and
+ *  quantiles from a fixed-range histogram.
+ *  <p>
+ *  Two summaries of the same histogram range merge into the summary of both
+ *  sequences (Chan et al.), so threads can each keep their own and combine
+ *  them at the end. All methods are synchronized; a summary that other
+ *  threads add to can be read while they run.
+ *  <p>
+ *  Quantiles are exact up to one histogram bin; values outside the range
+ *  are counted in the first or last bin.
+ */
+public class RunningStats {
+    private final double lo;
+    private final double hi;
+    private final long[] histogram;
+
+    private long count;
+    private double sum;
+    private double compensation;   // running error of sum, for Kahan summation
+    private double mean;
+    private double m2;             // sum of squared deviations from the mean
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    // summary of values in [0, 1], such as percolation thresholds
+    public RunningStats() {
+        this(0, 1, 1024);
+    }
+
+    // summary with quantiles resolved to (hi - lo) / bins within [lo, hi]
+    public RunningStats(double lo, double hi, int bins) {
+        if (!(lo < hi) || bins < 1) {
+            throw new IllegalArgumentException();
+        }
+        this.lo = lo;
+        this.hi = hi;
+        histogram = new long[bins];
+    }
+
+    public synchronized void add(double x) {
+        ++count;
+
+        double y = x - compensation;
+        double t = sum + y;
+        compensation = (t - sum) - y;
+        sum = t;
+
+        double delta = x - mean;
+        mean += delta / count;
+        m2 += delta * (x - mean);
+
+        if (x < min) min = x;
+        if (x > max) max = x;
+        histogram[bin(x)]++;
+    }
+
+    // adds all values summarized by other, which must have the same range and bins
+    public void merge(RunningStats other) {
+        RunningStats o = other.copy();
+        if (o.lo != lo || o.hi != hi || o.histogram.length != histogram.length) {
+            throw new IllegalArgumentException();
+        }
+        synchronized (this) {
+            if (o.count == 0) return;
+            long total = count + o.count;
+            double delta = o.mean - mean;
+            m2 += o.m2 + delta * delta * ((double) count * o.count / total);
+            mean += delta * o.count / total;
+            count = total;
+
+            double y = o.sum - (compensation + o.compensation);
+            double t = sum + y;
+            compensation = (t - sum) - y;
+            sum = t;
+
+            min = Math.min(min, o.min);
+            max = Math.max(max, o.max);
+            for (int b = 0; b < histogram.length; ++b) {
+                histogram[b] += o.histogram[b];
+            }
+        }
+    }
+
+    public synchronized RunningStats copy() {
+        RunningStats copy = new RunningStats(lo, hi, histogram.length);
+        copy.count = count;
+        copy.sum = sum;
+        copy.compensation = compensation;
+        copy.mean = mean;
+        copy.m2 = m2;
+        copy.min = min;
+        copy.max = max;
+        System.arraycopy(histogram, 0, copy.histogram, 0, histogram.length);
+        return copy;
+    }
+
+    public synchronized long count() {
+        return count;
+    }
+
+    public synchronized double sum() {
+        return sum;
+    }
+
+    // NaN if there are no values
+    public synchronized double mean() {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    // sample variance, NaN for fewer than two values
+    public synchronized double variance() {
+        return count < 2 ? Double.NaN : m2 / (count - 1);
+    }
+
+    // sample standard deviation, NaN for fewer than two values
+    public synchronized double stddev() {
+        return Math.sqrt(variance());
+    }
+
+    public synchronized double min() {
+        return count == 0 ? Double.NaN : min;
+    }
+
+    public synchronized double max() {
+        return count == 0 ? Double.NaN : max;
+    }
+
+    // value below which a fraction q of the values lie, interpolated within
+    // a histogram bin; NaN if there are no values
+    public synchronized double quantile(double q) {
+        if (!(0 <= q && q <= 1)) {
+            throw new IllegalArgumentException();
+        }
+        if (count == 0) return Double.NaN;
+
+        double rank = q * count;
+        long below = 0;
+        double width = (hi - lo) / histogram.length;
+        for (int b = 0; b < histogram.length; ++b) {
+            long inBin = histogram[b];
+            if (inBin > 0 && below + inBin >= rank) {
+                double x = lo + width * (b + (rank - below) / inBin);
+                return Math.max(min, Math.min(max, x));
+            }
+            below += inBin;
+        }
+        return max;
+    }
+
+    public synchronized String toString() {
+        return String.format("n = %d, mean = %f, stddev = %f, min = %f, max = %f",
+                count, mean(), stddev(), min(), max());
+    }
+
+    private int bin(double x) {
+        int b = (int) Math.floor((x - lo) / (hi - lo) * histogram.length);
+        if (b < 0 || Double.isNaN(x)) return 0;
+        return Math.min(b, histogram.length - 1);
+    }
+}
@@ -0,0 +1,187 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ *  Percolation thresholds for several grid sizes, run on one shared pool,
+ *  extrapolated to the infinite grid.
+ *  <p>
+ *  Every size runs adaptive batches of {@link PercolationStats} trials until
+ *  its 95% confidence interval is within <tt>halfWidth</tt> of the mean, or
+ *  until the budget is spent. The sizes proceed side by side, each waiting
+ *  only on its own batches, so the trial leaves of all of them share the
+ *  workers: when the small sizes are done, the large ones take over every
+ *  core. The largest size starts first, since its trials cost the most, about
+ *  N^2 sites each. Each size keeps its own idle grids, dropped once it is done.
+ *  <p>
+ *  Each size draws its trials from its own seed, so its results do not
+ *  depend on the other sizes or on the number of threads, unless the budget
+ *  runs out.
+ *  <p>
+ *  The means are fitted to p(N) = p_c + a N^(-1/nu), with nu = 4/3 for
+ *  two-dimensional percolation, by least squares weighted with the inverse
+ *  variance of each mean; p_c is the extrapolated threshold. Sizes left with
+ *  fewer than 2 trials or no spread have no usable variance and are left
+ *  out of the fit.
+ */
+public class ScalingSweep {
+    // correlation length exponent of two-dimensional percolation
+    private static final double NU = 4.0 / 3.0;
+
+    private final int[] sizes;               // increasing
+    private final PercolationStats[] stats;  // stats[k] for sizes[k]
+    private final double threshold;
+    private final double thresholdError;
+    private final double amplitude;
+
+    // runs every N in sizes, at least 2 of them, on the given number of threads;
+    // throws IllegalStateException if the budget leaves fewer than 2 sizes to fit
+    public ScalingSweep(int[] sizes, double halfWidth, long budgetMillis, UnionFindStrategy strategy,
+                        PercolationStats.Estimator estimator, long seed, int threads) {
+        this.sizes = sizes.clone();
+        Arrays.sort(this.sizes);
+        if (this.sizes.length < 2 || this.sizes[0] < 2 || !(halfWidth > 0) || threads < 1) {
+            throw new IllegalArgumentException();
+        }
+        for (int k = 1; k < this.sizes.length; ++k) {
+            if (this.sizes[k] == this.sizes[k - 1]) {
+                throw new IllegalArgumentException();
+            }
+        }
+
+        long deadline = System.currentTimeMillis() + budgetMillis;
+        stats = new PercolationStats[this.sizes.length];
+        Size[] runs = new Size[this.sizes.length];
+        for (int k = 0; k < stats.length; ++k) {
+            int N = this.sizes[k];
+            stats[k] = new PercolationStats(N, strategy, PercolationStats.trialSeed(seed, N),
+                                            threads, estimator);
+            // largest first
+            runs[stats.length - 1 - k] = new Size(stats[k], halfWidth, deadline);
+        }
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(runs);
+                }
+            });
+        } finally {
+            pool.shutdown();
+        }
+
+        double[] fit = fit(this.sizes, stats);
+        threshold = fit[0];
+        thresholdError = fit[1];
+        amplitude = fit[2];
+    }
+
+    // grid sizes, increasing
+    public int[] sizes() {
+        return sizes.clone();
+    }
+
+    // trials and statistics of N-by-N grids, which must be one of the sizes
+    public PercolationStats stats(int N) {
+        int k = Arrays.binarySearch(sizes, N);
+        if (k < 0) {
+            throw new IllegalArgumentException();
+        }
+        return stats[k];
+    }
+
+    // threshold extrapolated to N = infinity
+    public double threshold() {
+        return threshold;
+    }
+
+    // standard error of the extrapolated threshold
+    public double thresholdError() {
+        return thresholdError;
+    }
+
+    // a in p(N) = p_c + a N^(-1/nu)
+    public double amplitude() {
+        return amplitude;
+    }
+
+    // weighted least squares of the means against x = N^(-1/nu), over the
+    // sizes with a positive variance: p_c, its standard error and a
+    static double[] fit(int[] sizes, PercolationStats[] stats) {
+        double s = 0, sx = 0, sy = 0, sxx = 0, sxy = 0;
+        int fitted = 0;
+        for (int k = 0; k < stats.length; ++k) {
+            if (stats[k].trials() < 2 || !(stats[k].stddev() > 0)) continue;
+            double x = Math.pow(sizes[k], -1 / NU);
+            double error = stats[k].stddev() / Math.sqrt(stats[k].trials());
+            double w = 1 / (error * error);
+            s += w;
+            sx += w * x;
+            sy += w * stats[k].mean();
+            sxx += w * x * x;
+            sxy += w * x * stats[k].mean();
+            ++fitted;
+        }
+        if (fitted < 2) {
+            throw new IllegalStateException("fewer than 2 sizes with a variance to fit");
+        }
+        double determinant = s * sxx - sx * sx;
+        return new double[] {(sxx * sy - sx * sxy) / determinant, Math.sqrt(sxx / determinant),
+                             (s * sxy - sx * sy) / determinant};
+    }
+
+    // test client: half-width, budget in seconds, threads, then the sizes
+    public static void main(String[] args) {
+        if (args.length < 5) {
+            StdOut.printf("Need a half-width, a budget in seconds, a number of threads "
+                    + "and at least 2 sizes%n");
+            return;
+        }
+        double halfWidth = Double.parseDouble(args[0]);
+        long budgetMillis = (long) (1000 * Double.parseDouble(args[1]));
+        int threads = Integer.parseInt(args[2]);
+        int[] sizes = new int[args.length - 3];
+        for (int k = 0; k < sizes.length; ++k) {
+            sizes[k] = Integer.parseInt(args[k + 3]);
+        }
+
+        Stopwatch stopwatch = new Stopwatch();
+        ScalingSweep sweep = new ScalingSweep(sizes, halfWidth, budgetMillis,
+                UnionFindStrategy.WEIGHTED_QUICK_UNION, PercolationStats.Estimator.PLAIN,
+                new SplittableRandom().nextLong(), threads);
+        for (int N : sweep.sizes()) {
+            PercolationStats stats = sweep.stats(N);
+            StdOut.printf("N = %5d: %7d trials, mean = %f +- %f%n",
+                    N, stats.trials(), stats.mean(), stats.halfWidth());
+        }
+        StdOut.printf("p_c = %f +- %f, a = %f, %.1f s%n", sweep.threshold(),
+                1.96 * sweep.thresholdError(), sweep.amplitude(), stopwatch.elapsedTime());
+    }
+
+    // batches of one size, run one after another until it is precise enough
+    private static class Size extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final PercolationStats stats;
+        private final double halfWidth;
+        private final long deadline;
+
+        public Size(PercolationStats stats, double halfWidth, long deadline) {
+            this.stats = stats;
+            this.halfWidth = halfWidth;
+            this.deadline = deadline;
+        }
+
+        @Override
+        protected void compute() {
+            do {
+                ForkJoinTask<PercolationStats.Results> batch = stats.batch(stats.nextBatch(halfWidth));
+                stats.merge(batch.invoke());
+            } while (stats.halfWidth() > halfWidth && System.currentTimeMillis() < deadline);
+            stats.releaseGrids();
+        }
+    }
+}
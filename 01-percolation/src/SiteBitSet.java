@@ -0,0 +1,98 @@
+/**
+ *  Fixed-size set of site indices 0 through size-1 stored one bit per site in
+ *  a <tt>long[]</tt>.
+ *  <p>
+ *  Besides single-bit access it answers counting and scanning queries over a
+ *  range of indices a word at a time, which is what whole-row queries on a
+ *  row-major grid turn into.
+ */
+public final class SiteBitSet {
+    private final long[] words;
+    private final int size;
+
+    public SiteBitSet(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException();
+        }
+        this.size = size;
+        words = new long[(size + 63) >>> 6];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean get(int index) {
+        return (words[index >>> 6] & (1L << index)) != 0;
+    }
+
+    // sets the bit, returns false if it was already set
+    public boolean set(int index) {
+        int w = index >>> 6;
+        long mask = 1L << index;
+        if ((words[w] & mask) != 0) return false;
+        words[w] |= mask;
+        return true;
+    }
+
+    // copy with the same bits set
+    public SiteBitSet copy() {
+        SiteBitSet copy = new SiteBitSet(size);
+        System.arraycopy(words, 0, copy.words, 0, words.length);
+        return copy;
+    }
+
+    // clears the bit, returns false if it was already clear
+    public boolean clear(int index) {
+        int w = index >>> 6;
+        long mask = 1L << index;
+        if ((words[w] & mask) == 0) return false;
+        words[w] &= ~mask;
+        return true;
+    }
+
+    public void clear() {
+        java.util.Arrays.fill(words, 0L);
+    }
+
+    // number of set bits
+    public int cardinality() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    // number of set bits in [from, to)
+    public int cardinality(int from, int to) {
+        if (from >= to) return 0;
+        int first = from >>> 6;
+        int last = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+        if (first == last) {
+            return Long.bitCount(words[first] & firstMask & lastMask);
+        }
+        int count = Long.bitCount(words[first] & firstMask);
+        for (int w = first + 1; w < last; ++w) {
+            count += Long.bitCount(words[w]);
+        }
+        return count + Long.bitCount(words[last] & lastMask);
+    }
+
+    // smallest set index in [from, to), or -1 if there is none
+    public int nextSetBit(int from, int to) {
+        if (from >= to) return -1;
+        int w = from >>> 6;
+        long word = words[w] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                int index = (w << 6) + Long.numberOfTrailingZeros(word);
+                return index < to ? index : -1;
+            }
+            if ((long) ++w << 6 >= to) return -1;
+            word = words[w];
+        }
+    }
+}
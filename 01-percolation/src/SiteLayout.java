@@ -0,0 +1,112 @@
+/**
+ *  Order in which {@link Percolation} stores the sites of an N-by-N grid in
+ *  its site bits, union-find and flags, which all share one slot numbering.
+ *  <p>
+ *  Row-major order puts vertical neighbours N slots apart, so once a few
+ *  rows no longer fit in cache every union across rows misses. The other
+ *  layouts keep nearby sites in nearby slots:
+ *  <ul>
+ *  <li><tt>TILED</tt>: square tiles of {@value #TILE} by {@value #TILE}
+ *      sites, row-major inside and in tile order; vertical neighbours are
+ *      {@value #TILE} slots apart except at tile edges. Pads N up to a
+ *      multiple of the tile side.</li>
+ *  <li><tt>MORTON</tt>: Z-order, the bits of row and column interleaved;
+ *      every aligned square of 2^k by 2^k sites is contiguous. Pads N up to
+ *      a power of two, so it is meant for N a power of two, up to 2^15.</li>
+ *  </ul>
+ *  The gain depends on the order sites are opened in: a uniformly random
+ *  order touches a random cache line per open whatever the layout, and the
+ *  extra index arithmetic can cost more than the layout saves. Row-major
+ *  stays the default; measure with <tt>LayoutBenchmark</tt> before
+ *  switching. Rows, columns and slots are 0-based here.
+ */
+public enum SiteLayout {
+    ROW_MAJOR {
+        public int slots(int N) {
+            return N * N;
+        }
+
+        public int slot(int row, int col, int N) {
+            return row * N + col;
+        }
+
+        public int index(int slot, int N) {
+            return slot;
+        }
+    },
+    TILED {
+        public int slots(int N) {
+            long side = (long) tiles(N) << SHIFT;
+            if (side * side > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException();
+            }
+            return (int) (side * side);
+        }
+
+        public int slot(int row, int col, int N) {
+            int tile = (row >>> SHIFT) * tiles(N) + (col >>> SHIFT);
+            return tile << 2 * SHIFT | (row & MASK) << SHIFT | (col & MASK);
+        }
+
+        public int index(int slot, int N) {
+            int tile = slot >>> 2 * SHIFT;
+            int row = (tile / tiles(N)) << SHIFT | (slot >>> SHIFT & MASK);
+            int col = (tile % tiles(N)) << SHIFT | (slot & MASK);
+            return row * N + col;
+        }
+    },
+    MORTON {
+        public int slots(int N) {
+            int side = Integer.highestOneBit(Math.max(1, N - 1)) << (N > 1 ? 1 : 0);
+            if (side > 1 << 15) {
+                throw new IllegalArgumentException();
+            }
+            return side * side;
+        }
+
+        public int slot(int row, int col, int N) {
+            return spread(col) | spread(row) << 1;
+        }
+
+        public int index(int slot, int N) {
+            return compact(slot >>> 1) * N + compact(slot);
+        }
+    };
+
+    // side of a tile of the TILED layout
+    public static final int TILE = 32;
+    private static final int SHIFT = 5;
+    private static final int MASK = TILE - 1;
+
+    // number of slots for an N-by-N grid, at least N * N
+    public abstract int slots(int N);
+
+    // slot of the site in row row and column col
+    public abstract int slot(int row, int col, int N);
+
+    // row-major index row * N + col of the site in slot, which must hold one
+    public abstract int index(int slot, int N);
+
+    private static int tiles(int N) {
+        return (N + MASK) >>> SHIFT;
+    }
+
+    // bits 0..15 of x moved to the even bits
+    private static int spread(int x) {
+        x = (x | x << 8) & 0x00FF00FF;
+        x = (x | x << 4) & 0x0F0F0F0F;
+        x = (x | x << 2) & 0x33333333;
+        x = (x | x << 1) & 0x55555555;
+        return x;
+    }
+
+    // even bits of x moved to bits 0..15
+    private static int compact(int x) {
+        x &= 0x55555555;
+        x = (x | x >>> 1) & 0x33333333;
+        x = (x | x >>> 2) & 0x0F0F0F0F;
+        x = (x | x >>> 4) & 0x00FF00FF;
+        x = (x | x >>> 8) & 0x0000FFFF;
+        return x;
+    }
+}
@@ -0,0 +1,73 @@
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+
+/**
+ *  Uniformly random order of the site indices 0 through n-1, produced lazily by
+ *  Fisher-Yates: each call to <tt>next</tt> performs one swap, so a trial that
+ *  stops early never pays for the rest of the shuffle.
+ *  <p>
+ *  <tt>restart</tt> begins a new permutation over the same <tt>int[]</tt>
+ *  without reinitializing it. Shuffling any arrangement of the indices gives
+ *  a uniform permutation, so the array can be reused across trials.
+ */
+public class SitePermutation {
+    private final int[] sites;
+    private SplittableRandom random;
+    private int next;
+
+    public SitePermutation(int n, SplittableRandom random) {
+        if (n < 0) {
+            throw new IllegalArgumentException();
+        }
+        sites = new int[n];
+        for (int i = 0; i < n; ++i) {
+            sites[i] = i;
+        }
+        this.random = random;
+    }
+
+    public int size() {
+        return sites.length;
+    }
+
+    public boolean hasNext() {
+        return next < sites.length;
+    }
+
+    // next site index of the permutation
+    public int next() {
+        if (next >= sites.length) {
+            throw new NoSuchElementException();
+        }
+        int r = next + random.nextInt(sites.length - next);
+        int site = sites[r];
+        sites[r] = sites[next];
+        sites[next] = site;
+        ++next;
+        return site;
+    }
+
+    // site index returned by the k-th call to next since the last restart
+    public int get(int k) {
+        if (k < 0 || k >= next) {
+            throw new IndexOutOfBoundsException();
+        }
+        return sites[k];
+    }
+
+    // starts a new permutation drawn from the given random stream
+    public void restart(SplittableRandom random) {
+        this.random = random;
+        next = 0;
+    }
+
+    // same as restart, but from the sites in increasing order, as in a new
+    // permutation: the order drawn depends only on the random stream, not
+    // on earlier use of the array
+    public void reset(SplittableRandom random) {
+        for (int i = 0; i < sites.length; ++i) {
+            sites[i] = i;
+        }
+        restart(random);
+    }
+}
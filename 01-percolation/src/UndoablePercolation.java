@@ -0,0 +1,156 @@
+import java.util.Arrays;
+
+/**
+ *  {@link Percolation} that can go back: <tt>checkpoint</tt> marks the
+ *  current state and <tt>rollback</tt> returns to it, closing the sites
+ *  opened since at a cost proportional to their number.
+ *  <p>
+ *  Components live in an {@link UndoableUnionFind}. Every open is logged
+ *  with the site, the root whose top and bottom flags it overwrote and the
+ *  flags it found there; undoing it restores the flags, undoes its unions
+ *  and closes the site. Checkpoints are positions in that log, so a
+ *  checkpoint stays valid as long as nothing before it has been undone.
+ *  <p>
+ *  <tt>snapshot</tt> copies the whole grid in O(1): the copy shares every
+ *  array with the original until one of them opens or rolls back. The
+ *  copy starts with an empty log, so it can't roll back past the snapshot.
+ */
+public class UndoablePercolation {
+    private static final byte TOP = 1;
+    private static final byte BOTTOM = 2;
+
+    private final int N;
+    private SiteBitSet sites;
+    private byte[] touches;
+    private boolean shared;            // sites and touches shared with a snapshot
+    private final UndoableUnionFind clusters;
+    private int openSites;
+    private int percolatedAt = -1;     // opens logged when it started to percolate
+
+    // four entries per open: site, root, flags of root before, union checkpoint
+    private int[] log = new int[64];
+    private int opens;
+
+    public UndoablePercolation(int n) {
+        N = n;
+        sites = new SiteBitSet(N * N);
+        touches = new byte[N * N];
+        clusters = new UndoableUnionFind(N * N);
+    }
+
+    // shares the grid of other, with an empty log
+    private UndoablePercolation(UndoablePercolation other) {
+        N = other.N;
+        sites = other.sites;
+        touches = other.touches;
+        clusters = other.clusters.snapshot();
+        openSites = other.openSites;
+        percolatedAt = other.percolates() ? 0 : -1;
+        shared = true;
+        other.shared = true;
+    }
+
+    public void open(int i, int j) {
+        verifyIndex(i, j);
+        int index = (i - 1) * N + (j - 1);
+        if (sites.get(index)) return;
+        own();
+        int unions = clusters.checkpoint();
+        sites.set(index);
+        ++openSites;
+
+        int flags = 0;
+        if (i == 1) flags |= TOP;
+        if (i == N) flags |= BOTTOM;
+        if (i > 1) flags |= join(index, index - N);
+        if (i < N) flags |= join(index, index + N);
+        if (j > 1) flags |= join(index, index - 1);
+        if (j < N) flags |= join(index, index + 1);
+
+        int root = clusters.find(index);
+        if (4 * opens == log.length) {
+            log = Arrays.copyOf(log, 2 * log.length);
+        }
+        log[4 * opens]     = index;
+        log[4 * opens + 1] = root;
+        log[4 * opens + 2] = touches[root];
+        log[4 * opens + 3] = unions;
+        ++opens;
+
+        touches[root] = (byte) flags;
+        if (flags == (TOP | BOTTOM) && percolatedAt == -1) {
+            percolatedAt = opens;
+        }
+    }
+
+    public boolean isOpen(int i, int j) {
+        verifyIndex(i, j);
+        return sites.get((i - 1) * N + (j - 1));
+    }
+
+    public boolean isFull(int i, int j) {
+        verifyIndex(i, j);
+        int index = (i - 1) * N + (j - 1);
+        return sites.get(index) && (touches[clusters.find(index)] & TOP) != 0;
+    }
+
+    public boolean percolates() {
+        return percolatedAt != -1;
+    }
+
+    public int numberOfOpenSites() {
+        return openSites;
+    }
+
+    // position to roll back to: the opens made so far
+    public int checkpoint() {
+        return opens;
+    }
+
+    // closes the sites opened after checkpoint, last first, which must not
+    // be past the opens made so far
+    public void rollback(int checkpoint) {
+        if (checkpoint < 0 || checkpoint > opens) {
+            throw new IllegalArgumentException();
+        }
+        if (checkpoint == opens) return;
+        own();
+        while (opens > checkpoint) {
+            --opens;
+            touches[log[4 * opens + 1]] = (byte) log[4 * opens + 2];
+            clusters.rollback(log[4 * opens + 3]);
+            sites.clear(log[4 * opens]);
+            --openSites;
+        }
+        if (percolatedAt > opens) {
+            percolatedAt = -1;
+        }
+    }
+
+    // copy of the current grid, without the log, in constant time
+    public UndoablePercolation snapshot() {
+        return new UndoablePercolation(this);
+    }
+
+    private int join(int index, int n) {
+        if (!sites.get(n)) return 0;
+        int nRoot = clusters.find(n);
+        int flags = touches[nRoot];
+        clusters.union(nRoot, index);
+        return flags;
+    }
+
+    // copies arrays shared with a snapshot before writing to them
+    private void own() {
+        if (!shared) return;
+        sites = sites.copy();
+        touches = touches.clone();
+        shared = false;
+    }
+
+    private void verifyIndex(int i, int j) {
+        if (i < 1 || i > N || j < 1 || j > N) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+}
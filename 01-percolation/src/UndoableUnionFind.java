@@ -0,0 +1,139 @@
+import java.util.Arrays;
+
+/**
+ *  Quick-union by rank that can undo its unions, last first.
+ *  <p>
+ *  There is no path compression, so a union changes nothing but the parent
+ *  of one root and the rank and size of the other. Each union is logged as
+ *  the root it linked, and <tt>rollback</tt> unlinks roots back to an
+ *  earlier <tt>checkpoint</tt> at constant cost per union. Without
+ *  compression <tt>find</tt> walks the whole path, at most log N links by
+ *  the rank bound.
+ *  <p>
+ *  <tt>snapshot</tt> returns a copy in O(1) that shares the arrays with
+ *  this one until either of them unions or rolls back, which copies them.
+ */
+public class UndoableUnionFind implements UnionFind {
+    private int[] parent;        // parent[i] = parent of i
+    private byte[] rank;         // rank[i] = rank of subtree rooted at i
+    private int[] size;          // size[i] = number of sites in tree rooted at i
+    private boolean shared;      // arrays shared with a snapshot
+    private int count;           // number of components
+    private int[] log = new int[16];   // linked roots, ~root if that raised a rank
+    private int logSize;
+
+    public UndoableUnionFind(int N) {
+        count = N;
+        parent = new int[N];
+        rank = new byte[N];
+        size = new int[N];
+        for (int i = 0; i < N; i++) {
+            parent[i] = i;
+            size[i] = 1;
+        }
+    }
+
+    // shares the arrays of other, with an empty log
+    private UndoableUnionFind(UndoableUnionFind other) {
+        parent = other.parent;
+        rank = other.rank;
+        size = other.size;
+        count = other.count;
+        shared = true;
+        other.shared = true;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public int find(int p) {
+        while (p != parent[p]) {
+            p = parent[p];
+        }
+        return p;
+    }
+
+    public int size(int p) {
+        return size[find(p)];
+    }
+
+    public boolean connected(int p, int q) {
+        return find(p) == find(q);
+    }
+
+    public void union(int p, int q) {
+        int i = find(p);
+        int j = find(q);
+        if (i == j) return;
+        own();
+
+        // make root of smaller rank point to root of larger rank
+        if (rank[i] < rank[j]) {
+            int tmp = i;
+            i = j;
+            j = tmp;
+        }
+        parent[j] = i;
+        size[i] += size[j];
+        boolean raised = rank[i] == rank[j];
+        if (raised) rank[i]++;
+        count--;
+
+        if (logSize == log.length) {
+            log = Arrays.copyOf(log, 2 * logSize);
+        }
+        log[logSize++] = raised ? ~j : j;
+    }
+
+    // isolates every site again and empties the log
+    public void reset() {
+        own();
+        count = parent.length;
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+            rank[i] = 0;
+            size[i] = 1;
+        }
+        logSize = 0;
+    }
+
+    // position to roll back to: the unions made so far
+    public int checkpoint() {
+        return logSize;
+    }
+
+    // undoes the unions made after checkpoint, which must not be past the
+    // unions made so far; costs time proportional to the unions undone
+    public void rollback(int checkpoint) {
+        if (checkpoint < 0 || checkpoint > logSize) {
+            throw new IllegalArgumentException();
+        }
+        if (checkpoint == logSize) return;
+        own();
+        while (logSize > checkpoint) {
+            int entry = log[--logSize];
+            int j = entry < 0 ? ~entry : entry;
+            int i = parent[j];
+            size[i] -= size[j];
+            if (entry < 0) rank[i]--;
+            parent[j] = j;
+            count++;
+        }
+    }
+
+    // copy of the current components, without the log; shares the arrays
+    // with this union-find until either one writes
+    public UndoableUnionFind snapshot() {
+        return new UndoableUnionFind(this);
+    }
+
+    // copies arrays shared with a snapshot before writing to them
+    private void own() {
+        if (!shared) return;
+        parent = parent.clone();
+        rank = rank.clone();
+        size = size.clone();
+        shared = false;
+    }
+}
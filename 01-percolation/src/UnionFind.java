@@ -0,0 +1,54 @@
+/**
+ *  The <tt>UnionFind</tt> interface is the common contract of the union-find
+ *  implementations in this module, so that clients such as {@link Percolation}
+ *  and {@link PercolationStats} can be run against any of them.
+ *  <p>
+ *  Sites are integers between 0 and N-1, where N is the number of sites
+ *  the structure was created with.
+ *
+ *  @see UnionFindStrategy
+ */
+public interface UnionFind {
+
+    /**
+     * Returns the number of components.
+     * @return the number of components (between 1 and N)
+     */
+    int count();
+
+    /**
+     * Returns the component identifier for the component containing site <tt>p</tt>.
+     * @param p the integer representing one site
+     * @return the component identifier for the component containing site <tt>p</tt>
+     */
+    int find(int p);
+
+    /**
+     * Returns the number of sites in the component containing site <tt>p</tt>.
+     * @param p the integer representing one site
+     * @return the number of sites in the component containing site <tt>p</tt>
+     */
+    int size(int p);
+
+    /**
+     * Are the two sites <tt>p</tt> and <tt>q</tt> in the same component?
+     * @param p the integer representing one site
+     * @param q the integer representing the other site
+     * @return <tt>true</tt> if the two sites are in the same component
+     */
+    boolean connected(int p, int q);
+
+    /**
+     * Merges the component containing site <tt>p</tt> with the component
+     * containing site <tt>q</tt>.
+     * @param p the integer representing one site
+     * @param q the integer representing the other site
+     */
+    void union(int p, int q);
+
+    /**
+     * Makes every site an isolated component again, as after construction,
+     * reusing the arrays instead of allocating new ones.
+     */
+    void reset();
+}
@@ -0,0 +1,52 @@
+/**
+ *  Selects the {@link UnionFind} implementation used by {@link Percolation}.
+ *  <p>
+ *  <tt>WEIGHTED_QUICK_UNION</tt> is the original implementation and stays the
+ *  default; the other strategies add path compression of some kind, which makes
+ *  repeated <tt>isFull</tt> and <tt>percolates</tt> queries nearly constant time.
+ *  <tt>PACKED</tt> keeps parents and sizes in one array, for the largest grids.
+ */
+public enum UnionFindStrategy {
+    WEIGHTED_QUICK_UNION {
+        public UnionFind create(int n) {
+            return new WeightedQuickUnionUF(n);
+        }
+    },
+    WEIGHTED_UNION_FIND {
+        public UnionFind create(int n) {
+            return new WeightedUnionFind(n);
+        }
+    },
+    PATH_COMPRESSION {
+        public UnionFind create(int n) {
+            return new WeightedQuickUnionPathCompressionUF(n);
+        }
+    },
+    PATH_HALVING {
+        public UnionFind create(int n) {
+            return new WeightedQuickUnionPathHalvingUF(n);
+        }
+    },
+    PATH_SPLITTING {
+        public UnionFind create(int n) {
+            return new WeightedQuickUnionPathSplittingUF(n);
+        }
+    },
+    UNION_BY_RANK {
+        public UnionFind create(int n) {
+            return new RankedQuickUnionUF(n);
+        }
+    },
+    PACKED {
+        public UnionFind create(int n) {
+            return new PackedQuickUnionUF(n);
+        }
+    };
+
+    /**
+     * Creates a union-find structure with <tt>n</tt> isolated sites.
+     * @param n the number of sites
+     * @return a new union-find structure
+     */
+    public abstract UnionFind create(int n);
+}
@@ -0,0 +1,28 @@
+/**
+ *  Weighted quick-union by size with full path compression: after
+ *  <tt>find</tt> every site on the path points directly at the root.
+ *  <p>
+ *  This takes two passes over the path; see
+ *  {@link WeightedQuickUnionPathHalvingUF} and
+ *  {@link WeightedQuickUnionPathSplittingUF} for one-pass variants with
+ *  the same amortized bound.
+ */
+public class WeightedQuickUnionPathCompressionUF extends WeightedQuickUnionUF {
+
+    public WeightedQuickUnionPathCompressionUF(int N) {
+        super(N);
+    }
+
+    @Override
+    public int find(int p) {
+        int root = p;
+        while (root != id[root])
+            root = id[root];
+        while (p != root) {
+            int next = id[p];
+            id[p] = root;
+            p = next;
+        }
+        return root;
+    }
+}
@@ -0,0 +1,19 @@
+/**
+ *  Weighted quick-union by size with path halving: during <tt>find</tt>
+ *  every other site on the path is made to point to its grandparent.
+ */
+public class WeightedQuickUnionPathHalvingUF extends WeightedQuickUnionUF {
+
+    public WeightedQuickUnionPathHalvingUF(int N) {
+        super(N);
+    }
+
+    @Override
+    public int find(int p) {
+        while (p != id[p]) {
+            id[p] = id[id[p]];
+            p = id[p];
+        }
+        return p;
+    }
+}
@@ -0,0 +1,20 @@
+/**
+ *  Weighted quick-union by size with path splitting: during <tt>find</tt>
+ *  every site on the path is made to point to its grandparent.
+ */
+public class WeightedQuickUnionPathSplittingUF extends WeightedQuickUnionUF {
+
+    public WeightedQuickUnionPathSplittingUF(int N) {
+        super(N);
+    }
+
+    @Override
+    public int find(int p) {
+        while (p != id[p]) {
+            int next = id[p];
+            id[p] = id[next];
+            p = next;
+        }
+        return p;
+    }
+}
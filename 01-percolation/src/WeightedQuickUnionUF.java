@@ -25,9 +25,9 @@
  *  @author Robert Sedgewick
  *  @author Kevin Wayne
  */
-public class WeightedQuickUnionUF {
-    private final int[] id;    // id[i] = parent of i
-    private final int[] sz;    // sz[i] = number of objects in subtree rooted at i
+public class WeightedQuickUnionUF implements UnionFind {
+    final int[] id;    // id[i] = parent of i
+    final int[] sz;    // sz[i] = number of objects in subtree rooted at i
     private int count;   // number of components
 
     /**
@@ -36,10 +36,17 @@ public class WeightedQuickUnionUF {
      * @param N the number of objects
      */
     public WeightedQuickUnionUF(int N) {
-        count = N;
         id = new int[N];
         sz = new int[N];
-        for (int i = 0; i < N; i++) {
+        reset();
+    }
+
+    /**
+     * Makes every object an isolated component again, without allocating.
+     */
+    public void reset() {
+        count = id.length;
+        for (int i = 0; i < id.length; i++) {
             id[i] = i;
             sz[i] = 1;
         }
@@ -49,7 +56,7 @@ public class WeightedQuickUnionUF {
      * Returns the number of components.
      * @return the number of components (between 1 and N)
      */
-    int count() {
+    public int count() {
         return count;
     }
 
@@ -59,12 +66,22 @@ public class WeightedQuickUnionUF {
      * @return the component identifier for the component containing site <tt>p</tt>
      * @throws java.lang.IndexOutOfBoundsException unless 0 <= p < N
      */
-    int find(int p) {
+    public int find(int p) {
         while (p != id[p])
             p = id[p];
         return p;
     }
 
+    /**
+     * Returns the number of sites in the component containing site <tt>p</tt>.
+     * @param p the integer representing one site
+     * @return the number of sites in the component containing site <tt>p</tt>
+     * @throws java.lang.IndexOutOfBoundsException unless 0 <= p < N
+     */
+    public int size(int p) {
+        return sz[find(p)];
+    }
+
     /**
      * Are the two sites <tt>p</tt> and <tt>q</tt> in the same component?
      * @param p the integer representing one site
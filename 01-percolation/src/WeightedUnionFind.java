@@ -1,8 +1,12 @@
-public class WeightedUnionFind {
+public class WeightedUnionFind implements UnionFind {
     public WeightedUnionFind(int n) {
         unions = new int[n];
         weights = new int[n];
+        reset();
+    }
 
+    public void reset() {
+        count = unions.length;
         for (int i = 0; i < unions.length; ++i) {
             unions[i] = i;
         }
@@ -11,6 +15,18 @@ public class WeightedUnionFind {
         }
     }
 
+    public int count() {
+        return count;
+    }
+
+    public int find(int p) {
+        return rootOf(p);
+    }
+
+    public int size(int p) {
+        return weights[rootOf(p)];
+    }
+
     public boolean connected(int p, int q) {
         return rootOf(p) == rootOf(q);
     }
@@ -22,12 +38,13 @@ public class WeightedUnionFind {
         if (qRoot == pRoot) return;
 
         if (weights[pRoot] < weights[qRoot]) {
-            unions[qRoot] = pRoot;
-            weights[pRoot] += weights[qRoot];
-        } else {
             unions[pRoot] = qRoot;
             weights[qRoot] += weights[pRoot];
+        } else {
+            unions[qRoot] = pRoot;
+            weights[pRoot] += weights[qRoot];
         }
+        count--;
     }
 
     private int rootOf(int i) {
@@ -39,4 +56,5 @@ public class WeightedUnionFind {
 
     private final int[] unions;
     private final int[] weights;
+    private int count;
 }
@@ -0,0 +1,124 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+public class ConcurrentPercolationTest {
+
+    @Test
+    public void singleElementSitePercolatesIfOpened() {
+        ConcurrentPercolation p = new ConcurrentPercolation(1);
+        Assert.assertFalse(p.percolates());
+        p.open(1, 1);
+        Assert.assertTrue(p.isFull(1, 1));
+        Assert.assertTrue(p.percolates());
+    }
+
+    @Test
+    public void standaloneOpenedSiteInBottomRowIsNotFull() {
+        // * - -
+        // * - -
+        // * - *
+        ConcurrentPercolation p = new ConcurrentPercolation(3);
+        p.open(1, 1);
+        p.open(2, 1);
+        p.open(3, 1);
+        p.open(3, 3);
+        Assert.assertTrue(p.percolates());
+        Assert.assertFalse(p.isFull(3, 3));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void outOfBoundsOnInvalidIndexForIsFull() {
+        new ConcurrentPercolation(5).isFull(5, 6);
+    }
+
+    @Test
+    public void concurrentUnionsConnectEverything() throws InterruptedException {
+        final int n = 10000;
+        final int threads = 4;
+        final ConcurrentUnionFind uf = new ConcurrentUnionFind(n);
+        runConcurrently(threads, new Worker() {
+            public void run(int thread) {
+                Random random = new Random(thread);
+                for (int k = thread; k < n - 1; k += threads) {
+                    uf.union(k, k + 1);
+                    uf.connected(random.nextInt(n), random.nextInt(n));
+                }
+            }
+        });
+        Assert.assertEquals(1, uf.count());
+        for (int k = 0; k < n; ++k) {
+            Assert.assertTrue(uf.connected(0, k));
+        }
+    }
+
+    @Test
+    public void concurrentOpensAgreeWithPercolation() throws InterruptedException {
+        for (int round = 0; round < 20; ++round) {
+            final int n = 40;
+            final int threads = 4;
+            final int[] sites = new int[n * n * 6 / 10];
+            Random random = new Random(round);
+            for (int k = 0; k < sites.length; ++k) {
+                sites[k] = random.nextInt(n * n);
+            }
+
+            final ConcurrentPercolation concurrent = new ConcurrentPercolation(n);
+            runConcurrently(threads, new Worker() {
+                public void run(int thread) {
+                    // every thread opens every site, in its own order
+                    for (int k = 0; k < sites.length; ++k) {
+                        int site = sites[(k + thread * sites.length / threads) % sites.length];
+                        concurrent.open(site / n + 1, site % n + 1);
+                        concurrent.percolates();
+                    }
+                }
+            });
+
+            Percolation expected = new Percolation(n);
+            for (int site : sites) {
+                expected.open(site / n + 1, site % n + 1);
+            }
+            Assert.assertEquals(expected.percolates(), concurrent.percolates());
+            for (int i = 1; i <= n; ++i) {
+                for (int j = 1; j <= n; ++j) {
+                    Assert.assertEquals(expected.isOpen(i, j), concurrent.isOpen(i, j));
+                    Assert.assertEquals(expected.isFull(i, j), concurrent.isFull(i, j));
+                }
+            }
+        }
+    }
+
+    private interface Worker {
+        void run(int thread);
+    }
+
+    private void runConcurrently(int threads, final Worker worker) throws InterruptedException {
+        final CountDownLatch start = new CountDownLatch(1);
+        final Throwable[] failure = new Throwable[1];
+        Thread[] running = new Thread[threads];
+        for (int t = 0; t < threads; ++t) {
+            final int thread = t;
+            running[t] = new Thread() {
+                public void run() {
+                    try {
+                        start.await();
+                        worker.run(thread);
+                    } catch (Throwable e) {
+                        failure[0] = e;
+                    }
+                }
+            };
+            running[t].start();
+        }
+        start.countDown();
+        for (Thread t : running) {
+            t.join();
+        }
+        if (failure[0] != null) {
+            throw new AssertionError(failure[0]);
+        }
+    }
+}
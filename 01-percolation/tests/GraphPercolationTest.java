@@ -0,0 +1,125 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.SplittableRandom;
+
+public class GraphPercolationTest {
+
+    @Test
+    public void squareLatticeMatchesPercolation() {
+        int n = 30;
+        Percolation grid = new Percolation(n);
+        GraphPercolation graph = new GraphPercolation(Lattice.square(n), GraphPercolation.Mode.SITE);
+        SitePermutation order = new SitePermutation(n * n, new SplittableRandom(17));
+        while (order.hasNext()) {
+            int k = order.next();
+            grid.openIndex(k);
+            graph.open(k);
+            Assert.assertEquals(grid.percolates(), graph.percolates());
+            int i = k / n + 1;
+            int j = k % n + 1;
+            Assert.assertEquals(grid.isFull(i, j), graph.isFull(k));
+        }
+        for (int k = 0; k < n * n; ++k) {
+            Assert.assertTrue(graph.isFull(k));
+        }
+    }
+
+    @Test
+    public void generatedLatticesAreSymmetric() {
+        Lattice[] lattices = {Lattice.square(6), Lattice.triangular(6), Lattice.hexagonal(6), Lattice.cubic(5)};
+        int[] innerDegrees = {4, 6, 3, 6};
+        int[] inner = {2 * 6 + 2, 2 * 6 + 2, 2 * 6 + 2, (2 * 5 + 2) * 5 + 2};
+        for (int l = 0; l < lattices.length; ++l) {
+            Lattice lattice = lattices[l];
+            Assert.assertEquals(innerDegrees[l], lattice.degree(inner[l]));
+            int[] offsets = lattice.offsets();
+            int[] targets = lattice.targets();
+            for (int k = 0; k < lattice.bonds(); ++k) {
+                int v = lattice.tail(k);
+                Assert.assertTrue(offsets[v] <= k && k < offsets[v + 1]);
+                // the edge is listed at its other end too
+                int w = targets[k];
+                boolean back = false;
+                for (int b = offsets[w]; b < offsets[w + 1]; ++b) {
+                    if (targets[b] == v) back = true;
+                }
+                Assert.assertTrue(back);
+            }
+        }
+    }
+
+    @Test
+    public void bondsConnectAllOpenNodes() {
+        // path 0 - 1 - 2 with source 0 and sink 2
+        Lattice path = new Lattice(new int[] {0, 1, 3, 4}, new int[] {1, 0, 2, 1},
+                                   new int[] {0}, new int[] {2});
+        GraphPercolation perc = new GraphPercolation(path, GraphPercolation.Mode.BOND);
+        Assert.assertTrue(perc.isOpen(1));
+        Assert.assertTrue(perc.isFull(0));
+        Assert.assertFalse(perc.isFull(1));
+        perc.openBond(1);
+        Assert.assertTrue(perc.isFull(1));
+        Assert.assertFalse(perc.percolates());
+        perc.openBond(3);
+        Assert.assertTrue(perc.isBondOpen(3));
+        Assert.assertTrue(perc.isBondOpen(2));
+        Assert.assertTrue(perc.percolates());
+        Assert.assertEquals(2, perc.numberOfOpened());
+    }
+
+    @Test
+    public void bothEntriesOfAnEdgeAreOneBond() {
+        // path 0 - 1 - 2, each edge listed at both ends
+        Lattice path = new Lattice(new int[] {0, 1, 3, 4}, new int[] {1, 0, 2, 1},
+                                   new int[] {0}, new int[] {2});
+        GraphPercolation perc = new GraphPercolation(path, GraphPercolation.Mode.BOND);
+        Assert.assertEquals(2, perc.numberOfCandidates());
+        // entry 1 is 1 -> 0, the mirror of entry 0
+        perc.openBond(1);
+        Assert.assertTrue(perc.isBondOpen(0));
+        Assert.assertTrue(perc.isBondOpen(1));
+        perc.openBond(0);
+        Assert.assertEquals(1, perc.numberOfOpened());
+        Assert.assertTrue(perc.isFull(1));
+        perc.openBond(3);
+        Assert.assertTrue(perc.isBondOpen(2));
+        Assert.assertEquals(2, perc.numberOfOpened());
+        Assert.assertTrue(perc.percolates());
+    }
+
+    @Test
+    public void cubicLatticePercolatesWhenOpen() {
+        int n = 6;
+        GraphPercolation perc = new GraphPercolation(Lattice.cubic(n), GraphPercolation.Mode.SITE);
+        // a straight column through the layers
+        for (int z = 0; z < n; ++z) {
+            Assert.assertFalse(perc.percolates());
+            perc.open(z * n * n + 7);
+        }
+        Assert.assertTrue(perc.percolates());
+        Assert.assertTrue(perc.isFull((n - 1) * n * n + 7));
+        Assert.assertFalse(perc.isFull(8));
+    }
+
+    @Test
+    public void bondThresholdOfSquareLatticeIsOneHalf() {
+        SplittableRandom random = new SplittableRandom(170);
+        RunningStats stats = new RunningStats();
+        for (int t = 0; t < 40; ++t) {
+            stats.add(GraphPercolation.threshold(Lattice.square(40), GraphPercolation.Mode.BOND,
+                    UnionFindStrategy.PATH_HALVING, random.split()));
+        }
+        Assert.assertEquals(0.5, stats.mean(), 0.03);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void siteModeHasNoBondsToOpen() {
+        new GraphPercolation(Lattice.square(3), GraphPercolation.Mode.SITE).openBond(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void targetsMustBeNodes() {
+        new Lattice(new int[] {0, 1}, new int[] {1}, new int[0], new int[0]);
+    }
+}
@@ -0,0 +1,121 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.TreeMap;
+
+public class HoshenKopelmanTest {
+
+    @Test
+    public void smallGridIsLabeled() {
+        // 1 0 1
+        // 1 0 1
+        // 0 1 1
+        boolean[] open = {true, false, true, true, false, true, false, true, true};
+        HoshenKopelman hk = new HoshenKopelman(open, 3);
+        Assert.assertTrue(hk.percolates());
+        Assert.assertEquals(6, hk.numberOfOpenSites());
+        Assert.assertEquals(2, hk.numberOfClusters());
+        Assert.assertEquals(4, hk.largestClusterSize());
+        Assert.assertEquals(6, hk.numberOfFullSites());
+        Assert.assertArrayEquals(new int[] {2, 4}, hk.clusterSizes());
+        Assert.assertArrayEquals(new int[] {1, 1}, hk.clusterCounts());
+        Assert.assertArrayEquals(new int[] {2, 4}, hk.fullClusterSizes());
+    }
+
+    @Test
+    public void uShapedClusterJoinsBelow() {
+        // 1 0 1 0
+        // 1 0 1 0
+        // 1 1 1 0
+        // 0 0 0 1
+        boolean[] open = {
+            true, false, true, false,
+            true, false, true, false,
+            true, true, true, false,
+            false, false, false, true,
+        };
+        HoshenKopelman hk = new HoshenKopelman(open, 4);
+        Assert.assertFalse(hk.percolates());
+        Assert.assertEquals(2, hk.numberOfClusters());
+        Assert.assertArrayEquals(new int[] {1, 7}, hk.clusterSizes());
+        Assert.assertArrayEquals(new int[] {7}, hk.fullClusterSizes());
+        Assert.assertEquals(7, hk.numberOfFullSites());
+    }
+
+    @Test
+    public void emptyAndFullGrids() {
+        HoshenKopelman empty = new HoshenKopelman(new SiteBitSet(25), 5);
+        Assert.assertFalse(empty.percolates());
+        Assert.assertEquals(0, empty.numberOfClusters());
+        Assert.assertEquals(0, empty.largestClusterSize());
+        Assert.assertEquals(0, empty.clusterSizes().length);
+
+        SiteBitSet all = new SiteBitSet(25);
+        for (int k = 0; k < 25; ++k) all.set(k);
+        HoshenKopelman full = new HoshenKopelman(all, 5);
+        Assert.assertTrue(full.percolates());
+        Assert.assertArrayEquals(new int[] {25}, full.clusterSizes());
+        Assert.assertEquals(25, full.numberOfFullSites());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void gridSizeMustMatch() {
+        new HoshenKopelman(new boolean[10], 3);
+    }
+
+    @Test
+    public void matchesPercolationOnRandomGrids() {
+        StdRandom.setSeed(16);
+        int[] sizes = {1, 2, 7, 40, 65};
+        double[] ps = {0.3, 0.55, 0.593, 0.65, 0.9};
+        for (int n : sizes) {
+            for (double p : ps) {
+                boolean[] open = new boolean[n * n];
+                Percolation perc = new Percolation(n);
+                for (int k = 0; k < n * n; ++k) {
+                    if (StdRandom.bernoulli(p)) {
+                        open[k] = true;
+                        perc.openIndex(k);
+                    }
+                }
+                HoshenKopelman hk = new HoshenKopelman(open, n);
+                Assert.assertEquals(perc.percolates(), hk.percolates());
+                Assert.assertEquals(perc.numberOfOpenSites(), hk.numberOfOpenSites());
+                Assert.assertEquals(perc.largestClusterSize(), hk.largestClusterSize());
+
+                int full = 0;
+                TreeMap<Integer, Integer> histogram = new TreeMap<Integer, Integer>();
+                int[] counted = new int[n * n];
+                for (int i = 1; i <= n; ++i) {
+                    for (int j = 1; j <= n; ++j) {
+                        if (perc.isFull(i, j)) full++;
+                        int root = perc.cluster(i, j);
+                        if (root != -1) counted[root]++;
+                    }
+                }
+                long squares = 0;
+                for (int c : counted) {
+                    if (c == 0) continue;
+                    Integer count = histogram.get(c);
+                    histogram.put(c, count == null ? 1 : count + 1);
+                    squares += (long) c * c;
+                }
+                Assert.assertEquals(full, hk.numberOfFullSites());
+                Assert.assertEquals(perc.sumOfSquaredClusterSizes(), squares);
+
+                int[] hkSizes = hk.clusterSizes();
+                int[] hkCounts = hk.clusterCounts();
+                Assert.assertEquals(histogram.size(), hkSizes.length);
+                int k = 0;
+                int clusters = 0;
+                for (int size : histogram.keySet()) {
+                    Assert.assertEquals(size, hkSizes[k]);
+                    Assert.assertEquals((int) histogram.get(size), hkCounts[k]);
+                    clusters += hkCounts[k];
+                    ++k;
+                }
+                Assert.assertEquals(clusters, hk.numberOfClusters());
+            }
+        }
+    }
+}
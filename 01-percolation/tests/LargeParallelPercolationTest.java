@@ -0,0 +1,102 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+public class LargeParallelPercolationTest {
+
+    @Test
+    public void matchesPercolationAcrossSmallChunks() {
+        // chunks of a few padded rows, so strips are cut at chunk ends and
+        // joined across them
+        SplittableRandom random = new SplittableRandom(21);
+        int[] sizes = {1, 2, 9, 50, 101};
+        long[] chunkSizes = {256, 1024, 2048, OffHeapArray.CHUNK_SIZE};
+        double[] ps = {0.4, 0.593, 0.7};
+        int[] threads = {1, 2, 3, 8};
+        for (int n : sizes) {
+            for (long chunkSize : chunkSizes) {
+                if (8 * n > chunkSize) continue;
+                for (double p : ps) {
+                    SiteBitSet open = new SiteBitSet(n * n);
+                    Percolation expected = new Percolation(n);
+                    for (int k = 0; k < n * n; ++k) {
+                        if (random.nextDouble() < p) {
+                            open.set(k);
+                            expected.openIndex(k);
+                        }
+                    }
+                    for (int t : threads) {
+                        LargeParallelPercolation perc = new LargeParallelPercolation(n,
+                                index -> open.get((int) index), t, chunkSize);
+                        Assert.assertTrue(perc.strips() >= n / (chunkSize / (8 * n)));
+                        Assert.assertEquals(expected.percolates(), perc.percolates());
+                        Assert.assertEquals(expected.numberOfOpenSites(), perc.numberOfOpenSites());
+                        for (int i = 1; i <= n; ++i) {
+                            for (int j = 1; j <= n; ++j) {
+                                Assert.assertEquals(expected.isFull(i, j), perc.isFull(i, j));
+                                Assert.assertEquals(expected.isOpen(i, j), perc.isOpen(i, j));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void snakeThroughOneRowPerChunk() {
+        // a path that winds down through every row, each row in its own
+        // chunk, so the grid only percolates through the joins across chunks
+        int n = 40;
+        LargeParallelPercolation perc = new LargeParallelPercolation(n,
+                index -> {
+                    long row = index / n;
+                    long col = index % n;
+                    return row % 2 == 0 || col == (row / 2 % 2 == 0 ? n - 1 : 0);
+                }, 1, 512);
+        Assert.assertEquals(n, perc.strips());
+        Assert.assertTrue(perc.percolates());
+        Assert.assertTrue(perc.isFull(n, 1));
+        Assert.assertFalse(perc.isFull(n, 2));
+    }
+
+    @Test
+    public void mappedFileGridPercolates() throws IOException {
+        File file = File.createTempFile("percolation", ".links");
+        file.deleteOnExit();
+        if (!file.delete()) throw new IOException("cannot reuse " + file);
+        int n = 30;
+        LargeParallelPercolation perc = new LargeParallelPercolation(n,
+                index -> index % n == 3, 2, file.toPath());
+        try {
+            Assert.assertTrue(perc.percolates());
+            Assert.assertEquals(n, perc.numberOfOpenSites());
+            Assert.assertTrue(perc.isFull(n, 4));
+            Assert.assertFalse(perc.isOpen(n, 5));
+        } finally {
+            perc.close();
+            file.delete();
+        }
+    }
+
+    @Test
+    public void badThreadCountIsRejectedBeforeMapping() throws IOException {
+        File file = File.createTempFile("percolation", ".links");
+        file.deleteOnExit();
+        if (!file.delete()) throw new IOException("cannot reuse " + file);
+        try {
+            new LargeParallelPercolation(1 << 20, index -> true, 0, file.toPath());
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            Assert.assertFalse(file.exists());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rowsMustFitInAChunk() {
+        new LargeParallelPercolation(40, index -> true, 1, 256);
+    }
+}
@@ -0,0 +1,84 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+public class LargePercolationTest {
+
+    @Test
+    public void singleElementSitePercolatesIfOpened() {
+        LargePercolation p = new LargePercolation(1);
+        Assert.assertFalse(p.percolates());
+        Assert.assertFalse(p.isFull(1, 1));
+        p.open(1, 1);
+        Assert.assertTrue(p.isOpen(1, 1));
+        Assert.assertTrue(p.isFull(1, 1));
+        Assert.assertTrue(p.percolates());
+    }
+
+    @Test
+    public void standaloneOpenedSiteInBottomRowIsNotFull() {
+        // * - -
+        // * - -
+        // * - *
+        LargePercolation p = new LargePercolation(3);
+        p.open(1, 1);
+        p.open(2, 1);
+        p.open(3, 1);
+        p.open(3, 3);
+        Assert.assertTrue(p.percolates());
+        Assert.assertFalse(p.isFull(3, 3));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void outOfBoundsOnInvalidIndexForOpen() {
+        new LargePercolation(5).open(6, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void illegalArgumentExceptionIsThrownOnHugeN() {
+        new LargePercolation(2000000000L);
+    }
+
+    @Test
+    public void directMemoryGridAgreesWithPercolation() {
+        agreesWithPercolation(new LargePercolation(40), 40, 3);
+    }
+
+    @Test
+    public void mappedFileGridAgreesWithPercolation() throws IOException {
+        File file = File.createTempFile("percolation", ".grid");
+        file.deleteOnExit();
+        if (!file.delete()) throw new IOException("cannot reuse " + file);
+        LargePercolation p = new LargePercolation(40, file.toPath());
+        try {
+            agreesWithPercolation(p, 40, 4);
+        } finally {
+            p.close();
+            file.delete();
+        }
+    }
+
+    private void agreesWithPercolation(LargePercolation large, int n, long seed) {
+        Percolation expected = new Percolation(n);
+        Random random = new Random(seed);
+        for (int k = 0; k < n * n; ++k) {
+            int i = 1 + random.nextInt(n);
+            int j = 1 + random.nextInt(n);
+            expected.open(i, j);
+            large.open(i, j);
+            Assert.assertEquals(expected.percolates(), large.percolates());
+            int si = 1 + random.nextInt(n);
+            int sj = 1 + random.nextInt(n);
+            Assert.assertEquals(expected.isOpen(si, sj), large.isOpen(si, sj));
+            Assert.assertEquals(expected.isFull(si, sj), large.isFull(si, sj));
+        }
+        for (int i = 1; i <= n; ++i) {
+            for (int j = 1; j <= n; ++j) {
+                Assert.assertEquals(expected.isFull(i, j), large.isFull(i, j));
+            }
+        }
+    }
+}
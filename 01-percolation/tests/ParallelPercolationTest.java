@@ -0,0 +1,60 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.SplittableRandom;
+
+public class ParallelPercolationTest {
+
+    @Test
+    public void matchesPercolationForAnyThreadCount() {
+        SplittableRandom random = new SplittableRandom(20);
+        int[] sizes = {1, 2, 9, 50, 101};
+        double[] ps = {0.4, 0.593, 0.7};
+        int[] threads = {1, 2, 3, 8};
+        for (int n : sizes) {
+            for (double p : ps) {
+                SiteBitSet open = new SiteBitSet(n * n);
+                Percolation expected = new Percolation(n);
+                for (int k = 0; k < n * n; ++k) {
+                    if (random.nextDouble() < p) {
+                        open.set(k);
+                        expected.openIndex(k);
+                    }
+                }
+                for (int t : threads) {
+                    ParallelPercolation perc = new ParallelPercolation(open, n, t);
+                    Assert.assertEquals(expected.percolates(), perc.percolates());
+                    Assert.assertEquals(expected.numberOfOpenSites(), perc.numberOfOpenSites());
+                    for (int i = 1; i <= n; ++i) {
+                        for (int j = 1; j <= n; ++j) {
+                            Assert.assertEquals(expected.isFull(i, j), perc.isFull(i, j));
+                            Assert.assertEquals(expected.isOpen(i, j), perc.isOpen(i, j));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void snakeAcrossManyStrips() {
+        // a path that winds down through every row, so strips only connect
+        // through each other
+        int n = 40;
+        SiteBitSet open = new SiteBitSet(n * n);
+        for (int row = 0; row < n; row += 2) {
+            for (int col = 0; col < n; ++col) open.set(row * n + col);
+            if (row + 1 < n) open.set((row + 1) * n + (row / 2 % 2 == 0 ? n - 1 : 0));
+        }
+        ParallelPercolation perc = new ParallelPercolation(open, n, 8);
+        Assert.assertEquals(32, perc.strips());
+        Assert.assertTrue(perc.percolates());
+        Assert.assertTrue(perc.isFull(n, 1));
+        Assert.assertFalse(perc.isFull(n, 2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void gridSizeMustMatch() {
+        new ParallelPercolation(new SiteBitSet(10), 3, 2);
+    }
+}
@@ -0,0 +1,48 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PercolationCurveTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void illegalArgumentExceptionIsThrownOnZeroN() {
+        new PercolationCurve(0, 1);
+    }
+
+    @Test
+    public void singleSiteSpanningProbabilityIsP() {
+        PercolationCurve curve = new PercolationCurve(1, 3);
+        Assert.assertEquals(0.0, curve.spanningProbability(0), 0.0);
+        Assert.assertEquals(1.0, curve.spanningProbability(1), 0.0);
+        for (double p = 0; p <= 1; p += 0.125) {
+            Assert.assertEquals(p, curve.spanningProbability(p), 1e-12);
+        }
+    }
+
+    @Test
+    public void twoByTwoMatrixMatchesExactCurve() {
+        // with two open sites only the two vertical pairs out of six percolate,
+        // any three or four open sites percolate
+        int T = 20000;
+        PercolationCurve curve = new PercolationCurve(2, T, UnionFindStrategy.PATH_HALVING, 99);
+
+        Assert.assertEquals(0.0, curve.spanningProbability(1), 0.0);
+        Assert.assertEquals(1.0 / 3, curve.spanningProbability(2), 0.02);
+        Assert.assertEquals(1.0, curve.spanningProbability(3), 0.0);
+        Assert.assertEquals(4.0, curve.largestClusterSize(4), 0.0);
+        Assert.assertEquals(0.0, curve.meanClusterSize(4), 0.0);
+
+        for (double p = 0.1; p < 1; p += 0.2) {
+            double q = 1 - p;
+            double exact = p * p * p * p + 4 * p * p * p * q + 2 * p * p * q * q;
+            Assert.assertEquals(exact, curve.spanningProbability(p), 0.01);
+        }
+    }
+
+    @Test
+    public void spanningProbabilityRisesSharplyAroundThreshold() {
+        PercolationCurve curve = new PercolationCurve(64, 20, UnionFindStrategy.PATH_HALVING, 1);
+        Assert.assertTrue(curve.spanningProbability(0.45) < 0.1);
+        Assert.assertTrue(curve.spanningProbability(0.75) > 0.9);
+        Assert.assertTrue(curve.largestClusterSize(0.75) > curve.largestClusterSize(0.45));
+    }
+}
@@ -0,0 +1,69 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+
+public class PercolationInputTest {
+
+    @Test
+    public void gridSizeAndSitesAreRead() throws IOException {
+        PercolationInput input = PercolationInput.read(write("3\n 1 1\n2   1\r\n\t3 1\n 3 3"));
+        Assert.assertEquals(3, input.size());
+        Assert.assertEquals(4, input.count());
+        Assert.assertArrayEquals(new int[] {1, 2, 3, 3}, input.rows());
+        Assert.assertArrayEquals(new int[] {1, 1, 1, 3}, input.cols());
+        Assert.assertArrayEquals(new int[] {0, 3, 6, 8}, input.indices());
+    }
+
+    @Test
+    public void largeInputIsReadAcrossBuffers() throws IOException {
+        int n = 300;
+        StringBuilder text = new StringBuilder();
+        text.append(n).append('\n');
+        for (int i = 1; i <= n; ++i) {
+            for (int j = 1; j <= n; ++j) {
+                text.append(i).append(' ').append(j).append('\n');
+            }
+        }
+        PercolationInput input = PercolationInput.read(write(text.toString()));
+        Assert.assertEquals(n * n, input.count());
+        int[] indices = input.indices();
+        for (int k = 0; k < indices.length; ++k) {
+            Assert.assertEquals(k, indices[k]);
+        }
+
+        Percolation p = new Percolation(n);
+        p.openAll(input.rows(), input.cols());
+        Assert.assertTrue(p.percolates());
+        Assert.assertEquals(n * n, p.numberOfOpenSites());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rowWithoutColumnIsRejected() throws IOException {
+        PercolationInput.read(write("3\n1 1\n2"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonNumericInputIsRejected() throws IOException {
+        PercolationInput.read(write("3\n1 x"));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void indicesOutsideGridAreRejected() throws IOException {
+        PercolationInput.read(write("3\n4 1")).indices();
+    }
+
+    private String write(String text) throws IOException {
+        File file = File.createTempFile("percolation", ".txt");
+        file.deleteOnExit();
+        FileWriter writer = new FileWriter(file);
+        try {
+            writer.write(text);
+        } finally {
+            writer.close();
+        }
+        return file.getPath();
+    }
+}
@@ -0,0 +1,123 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class PercolationListenerTest {
+
+    // records events as strings, formerRoots sorted
+    private static class Recorder implements PercolationListener {
+        final List<String> events = new ArrayList<String>();
+
+        public void siteOpened(int i, int j) {
+            events.add("opened " + i + " " + j);
+        }
+
+        public void clustersMerged(int root, int absorbed) {
+            events.add("merged " + root + " " + absorbed);
+        }
+
+        public void clustersFilled(int i, int j, int root, int[] formerRoots, int count) {
+            int[] roots = Arrays.copyOf(formerRoots, count);
+            Arrays.sort(roots);
+            events.add("filled " + i + " " + j + " " + root + " " + Arrays.toString(roots));
+        }
+
+        public void percolated() {
+            events.add("percolated");
+        }
+    }
+
+    @Test
+    public void isolatedSiteSendsOnlyOpened() {
+        Percolation p = new Percolation(3);
+        Recorder r = new Recorder();
+        p.addListener(r);
+        p.open(2, 2);
+        p.open(2, 2);
+        Assert.assertEquals(1, r.events.size());
+        Assert.assertEquals("opened 2 2", r.events.get(0));
+        Assert.assertEquals(4, p.cluster(2, 2));
+        Assert.assertEquals(-1, p.cluster(1, 1));
+    }
+
+    @Test
+    public void mergeAndFillAreReportedWithRoots() {
+        Percolation p = new Percolation(3);
+        p.open(1, 1);
+        p.open(2, 3);
+        p.open(3, 3);
+        int lower = p.cluster(2, 3);
+
+        Recorder r = new Recorder();
+        p.addListener(r);
+        p.open(1, 2);
+        p.open(1, 3);
+
+        int root = p.cluster(1, 3);
+        Assert.assertEquals(root, p.cluster(1, 1));
+        Assert.assertEquals(root, p.cluster(3, 3));
+        Assert.assertEquals("opened 1 2", r.events.get(0));
+        Assert.assertEquals("filled 1 3 " + root + " [" + lower + "]", r.events.get(r.events.size() - 2));
+        Assert.assertEquals("percolated", r.events.get(r.events.size() - 1));
+        int merged = 0;
+        for (String event : r.events) {
+            if (event.startsWith("merged ")) merged++;
+        }
+        // (1, 2) joins (1, 1); (1, 3) joins that and the column below
+        Assert.assertEquals(3, merged);
+    }
+
+    @Test
+    public void percolatedIsSentOnce() {
+        Percolation p = new Percolation(2);
+        Recorder r = new Recorder();
+        p.addListener(r);
+        p.open(1, 1);
+        p.open(2, 1);
+        p.open(2, 2);
+        p.open(1, 2);
+        int count = 0;
+        for (String event : r.events) {
+            if (event.equals("percolated")) count++;
+        }
+        Assert.assertEquals(1, count);
+    }
+
+    @Test
+    public void removedListenerGetsNothing() {
+        Percolation p = new Percolation(2);
+        Recorder r = new Recorder();
+        p.addListener(r);
+        Assert.assertTrue(p.removeListener(r));
+        Assert.assertFalse(p.removeListener(r));
+        p.open(1, 1);
+        Assert.assertTrue(r.events.isEmpty());
+    }
+
+    @Test
+    public void filledSitesMatchIsFull() {
+        int n = 20;
+        Percolation p = new Percolation(n);
+        final boolean[] full = new boolean[n * n];
+        final Percolation perc = p;
+        p.addListener(new PercolationListener() {
+            public void clustersFilled(int i, int j, int root, int[] formerRoots, int count) {
+                full[(i - 1) * n + (j - 1)] = true;
+                for (int k = 0; k < count; ++k) {
+                    // former roots were roots of now full clusters
+                    Assert.assertTrue(perc.isFull(formerRoots[k] / n + 1, formerRoots[k] % n + 1));
+                }
+            }
+        });
+        StdRandom.setSeed(15);
+        for (int k = 0; k < n * n / 2; ++k) {
+            int i = StdRandom.uniform(n) + 1;
+            int j = StdRandom.uniform(n) + 1;
+            p.open(i, j);
+            if (p.isFull(i, j)) Assert.assertTrue(full[(i - 1) * n + (j - 1)]);
+        }
+    }
+}
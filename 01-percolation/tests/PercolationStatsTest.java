@@ -64,4 +64,123 @@ public class PercolationStatsTest {
         Assert.assertTrue(errorMessage, 0.6 <= mean && mean <= 0.7);
     }
 
+    @Test(expected = IllegalArgumentException.class)
+    public void illegalArgumentExceptionIsThrownOnZeroThreads() {
+        new PercolationStats(1, 1, UnionFindStrategy.WEIGHTED_QUICK_UNION, 1, 0);
+    }
+
+    @Test
+    public void sameSeedGivesSameStatsForAnyNumberOfThreads() {
+        int N = 20;
+        int T = 50;
+        long seed = 12345;
+
+        PercolationStats expected = new PercolationStats(N, T, UnionFindStrategy.PATH_HALVING, seed, 1);
+        for (int threads : new int[] {2, 3, 8}) {
+            PercolationStats ps = new PercolationStats(N, T, UnionFindStrategy.PATH_HALVING, seed, threads);
+            Assert.assertEquals(expected.mean(), ps.mean(), 0.0);
+            Assert.assertEquals(expected.stddev(), ps.stddev(), 0.0);
+        }
+    }
+
+    @Test
+    public void confidenceIntervalUsesStandardDeviation() {
+        int T = 100;
+        PercolationStats ps = new PercolationStats(10, T, UnionFindStrategy.PATH_HALVING, 3, 1);
+        double halfWidth = 1.96 * ps.stddev() / Math.sqrt(T);
+        Assert.assertEquals(ps.mean() - halfWidth, ps.confidenceLo(), 1e-12);
+        Assert.assertEquals(ps.mean() + halfWidth, ps.confidenceHi(), 1e-12);
+        Assert.assertEquals(T, ps.trials());
+    }
+
+    @Test
+    public void adaptiveRunStopsOnceHalfWidthIsReached() {
+        double target = 0.005;
+        PercolationStats ps = PercolationStats.untilHalfWidth(
+                20, target, 60000, UnionFindStrategy.PATH_HALVING, 8, 2);
+        Assert.assertTrue(ps.halfWidth() <= target);
+        // stddev is about 0.05 at N = 20, so about 400 trials are needed
+        Assert.assertTrue(ps.trials() > 100);
+        Assert.assertTrue(ps.trials() < 3000);
+    }
+
+    @Test
+    public void adaptiveRunDoesNotDependOnThreads() {
+        PercolationStats expected = PercolationStats.untilHalfWidth(
+                20, 0.005, 60000, UnionFindStrategy.PATH_HALVING, 17, 1);
+        PercolationStats ps = PercolationStats.untilHalfWidth(
+                20, 0.005, 60000, UnionFindStrategy.PATH_HALVING, 17, 48);
+        Assert.assertEquals(expected.trials(), ps.trials());
+        Assert.assertEquals(expected.mean(), ps.mean(), 0.0);
+    }
+
+    @Test
+    public void adaptiveRunStopsOnRelativeErrorOrBudget() {
+        PercolationStats ps = PercolationStats.untilRelativeError(
+                10, 0.05, 60000, UnionFindStrategy.PATH_HALVING, 8, 1);
+        Assert.assertTrue(ps.halfWidth() <= 0.05 * ps.mean());
+
+        PercolationStats outOfTime = PercolationStats.untilHalfWidth(
+                10, 1e-9, 0, UnionFindStrategy.PATH_HALVING, 8, 1);
+        Assert.assertTrue(outOfTime.halfWidth() > 1e-9);
+        Assert.assertTrue(outOfTime.trials() >= 1);
+    }
+
+    @Test
+    public void plainEffectiveSampleSizeIsTrials() {
+        PercolationStats ps = new PercolationStats(10, 100, UnionFindStrategy.PATH_HALVING, 3, 1);
+        Assert.assertEquals(100, ps.effectiveSampleSize(), 1e-9);
+    }
+
+    @Test
+    public void estimatorsAgreeOnTheMean() {
+        int N = 16;
+        int T = 500;
+        PercolationStats plain = new PercolationStats(N, 4 * T, UnionFindStrategy.PATH_HALVING, 21, 1);
+        for (PercolationStats.Estimator estimator : PercolationStats.Estimator.values()) {
+            PercolationStats ps = new PercolationStats(N, T, UnionFindStrategy.PATH_HALVING, 22, 1,
+                                                       null, estimator);
+            Assert.assertEquals(estimator.toString(), plain.mean(), ps.mean(), 0.01);
+            Assert.assertEquals(T, ps.trials());
+        }
+    }
+
+    @Test
+    public void controlVariateRaisesEffectiveSampleSize() {
+        int T = 500;
+        PercolationStats ps = new PercolationStats(16, T, UnionFindStrategy.PATH_HALVING, 5, 1,
+                                                   null, PercolationStats.Estimator.CONTROL_VARIATE);
+        // vertical and horizontal thresholds correlate by about 0.2, so the
+        // variance of their mean is about 0.6 of a plain one
+        Assert.assertTrue(ps.effectiveSampleSize() > 1.3 * T);
+        PercolationStats plain = new PercolationStats(16, T, UnionFindStrategy.PATH_HALVING, 5, 1);
+        Assert.assertTrue(ps.stddev() < plain.stddev());
+    }
+
+    @Test
+    public void stratifiedTrialsAreWorthNoMoreThanTheirGrids() {
+        int T = 500;
+        PercolationStats ps = new PercolationStats(16, T, UnionFindStrategy.PATH_HALVING, 6, 1,
+                                                   null, PercolationStats.Estimator.STRATIFIED);
+        // each trial counts for about 4 plain ones, but opens 4 grids
+        Assert.assertTrue(ps.effectiveSampleSize() > 2 * T);
+        Assert.assertEquals(ps.effectiveSampleSize() / (4 * T), ps.effectiveSamplesPerGrid(), 1e-12);
+        Assert.assertTrue(ps.effectiveSamplesPerGrid() < 1.3);
+
+        PercolationStats plain = new PercolationStats(16, T, UnionFindStrategy.PATH_HALVING, 6, 1);
+        Assert.assertEquals(1, plain.effectiveSamplesPerGrid(), 1e-9);
+    }
+
+    @Test
+    public void estimatorsGiveSameStatsForAnyNumberOfThreads() {
+        for (PercolationStats.Estimator estimator : PercolationStats.Estimator.values()) {
+            PercolationStats expected = new PercolationStats(12, 40, UnionFindStrategy.PATH_HALVING, 9, 1,
+                                                             null, estimator);
+            PercolationStats ps = new PercolationStats(12, 40, UnionFindStrategy.PATH_HALVING, 9, 3,
+                                                       null, estimator);
+            Assert.assertEquals(expected.mean(), ps.mean(), 0.0);
+            Assert.assertEquals(expected.effectiveSampleSize(), ps.effectiveSampleSize(), 0.0);
+        }
+    }
+
 }
@@ -1,6 +1,9 @@
 import org.junit.Test;
 import org.junit.Assert;
 
+import java.lang.management.ManagementFactory;
+import java.util.SplittableRandom;
+
 public class PercolationTestCase {
 
     private class Pair {
@@ -26,6 +29,27 @@ public class PercolationTestCase {
         Assert.assertFalse(p.percolates());
     }
 
+    @Test
+    public void openRowPercolatesHorizontallyOnly() {
+        // - - - - -
+        // - - - - -
+        // x x x x x
+        // - - - - -
+        // - - - - -
+
+        int n = 5;
+        Percolation p = new Percolation(n);
+        for (int j = 1; j < n; ++j) {
+            p.open(3, j);
+        }
+        Assert.assertFalse(p.percolatesHorizontally());
+        p.open(3, n);
+        Assert.assertTrue(p.percolatesHorizontally());
+        Assert.assertFalse(p.percolates());
+        p.reset();
+        Assert.assertFalse(p.percolatesHorizontally());
+    }
+
     @Test
     public void singleElementSiteIsNotOpenOnInit() {
         int n = 1;
@@ -543,4 +567,193 @@ public class PercolationTestCase {
         p.open(n + 1, 0);
     }
 
+    @Test
+    public void openDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        int n = 100;
+        Percolation p = new Percolation(n);
+        Percolation q = new Percolation(n);
+        // warm up the measurement itself
+        threads.getThreadAllocatedBytes(thread);
+
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 1; i <= n; ++i) {
+            for (int j = 1; j <= n; ++j) {
+                p.open(i, j);
+            }
+        }
+        for (int index = 0; index < n * n; ++index) {
+            q.openIndex(index);
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        // a single object per open would already be hundreds of kilobytes
+        Assert.assertTrue(allocated + " bytes allocated by open", allocated < 1024);
+    }
+
+    @Test
+    public void openSitesAreCountedPerRow() {
+        // - * -
+        // * * *
+        // - - *
+        int n = 3;
+        Percolation p = new Percolation(n);
+        p.open(1, 2);
+        p.open(2, 1);
+        p.open(2, 2);
+        p.open(2, 3);
+        p.open(3, 3);
+        p.open(3, 3);
+
+        Assert.assertEquals(5, p.numberOfOpenSites());
+        Assert.assertEquals(1, p.numberOfOpenSites(1));
+        Assert.assertEquals(3, p.numberOfOpenSites(2));
+        Assert.assertEquals(1, p.numberOfOpenSites(3));
+    }
+
+    @Test
+    public void nextOpenSiteIteratesOverOpenSitesOfRow() {
+        int n = 70;
+        Percolation p = new Percolation(n);
+        int[] opened = {1, 2, 33, 64, 65, 70};
+        for (int j : opened) {
+            p.open(5, j);
+        }
+        p.open(4, 3);
+        p.open(6, 3);
+
+        int k = 0;
+        for (int j = p.nextOpenSite(5, 1); j != -1; j = p.nextOpenSite(5, j + 1)) {
+            Assert.assertEquals(opened[k++], j);
+        }
+        Assert.assertEquals(opened.length, k);
+        Assert.assertEquals(-1, p.nextOpenSite(1, 1));
+    }
+
+    @Test
+    public void openAllOpensEverySite() {
+        // * - -
+        // * - -
+        // * - *
+        int n = 3;
+        Percolation byPairs = new Percolation(n);
+        byPairs.openAll(new int[] {1, 2, 3, 3}, new int[] {1, 1, 1, 3});
+        Percolation byIndex = new Percolation(n);
+        byIndex.openAll(new int[] {0, 3, 6, 8});
+
+        for (Percolation p : new Percolation[] {byPairs, byIndex}) {
+            Assert.assertTrue(p.percolates());
+            Assert.assertTrue(p.isOpen(3, 3));
+            Assert.assertFalse(p.isFull(3, 3));
+            Assert.assertEquals(4, p.numberOfOpenSites());
+        }
+    }
+
+    @Test
+    public void openAllChecksIndicesBeforeOpening() {
+        int n = 3;
+        Percolation p = new Percolation(n);
+        try {
+            p.openAll(new int[] {0, 9});
+            Assert.fail();
+        } catch (IndexOutOfBoundsException e) {
+            Assert.assertFalse(p.isOpen(1, 1));
+        }
+        try {
+            p.openAll(new int[] {1, 4}, new int[] {1, 1});
+            Assert.fail();
+        } catch (IndexOutOfBoundsException e) {
+            Assert.assertFalse(p.isOpen(1, 1));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void openAllRejectsRowsAndColumnsOfDifferentLength() {
+        new Percolation(3).openAll(new int[] {1, 2}, new int[] {1});
+    }
+
+    @Test
+    public void clusterStatisticsMatchAScanOfTheGrid() {
+        int n = 30;
+        Percolation p = new Percolation(n);
+        SitePermutation order = new SitePermutation(n * n, new SplittableRandom(22));
+        for (int step = 0; step < n * n; ++step) {
+            p.openIndex(order.next());
+            if (step % 37 != 0 && step != n * n - 1) continue;
+
+            int open = 0;
+            int full = 0;
+            int[] sizes = new int[n * n];
+            for (int i = 1; i <= n; ++i) {
+                for (int j = 1; j <= n; ++j) {
+                    if (p.isOpen(i, j)) open++;
+                    if (p.isFull(i, j)) full++;
+                    int root = p.cluster(i, j);
+                    if (root != -1) sizes[root]++;
+                }
+            }
+            int clusters = 0;
+            int largest = 0;
+            for (int size : sizes) {
+                if (size > 0) clusters++;
+                largest = Math.max(largest, size);
+            }
+            Assert.assertEquals(open, p.numberOfOpenSites());
+            Assert.assertEquals(full, p.numberOfFullSites());
+            Assert.assertEquals(clusters, p.numberOfClusters());
+            Assert.assertEquals(largest, p.largestClusterSize());
+        }
+        Assert.assertEquals(1, p.numberOfClusters());
+        Assert.assertEquals(n * n, p.numberOfFullSites());
+    }
+
+    @Test
+    public void resetGridBehavesLikeANewOne() {
+        int n = 20;
+        Percolation reused = new Percolation(n, UnionFindStrategy.PATH_HALVING);
+        for (int trial = 0; trial < 3; ++trial) {
+            SitePermutation order = new SitePermutation(n * n, new SplittableRandom(23 + trial));
+            Percolation fresh = new Percolation(n, UnionFindStrategy.PATH_HALVING);
+            while (!fresh.percolates()) {
+                int site = order.next();
+                fresh.openIndex(site);
+                reused.openIndex(site);
+                Assert.assertEquals(fresh.percolates(), reused.percolates());
+            }
+            Assert.assertEquals(fresh.numberOfOpenSites(), reused.numberOfOpenSites());
+            Assert.assertEquals(fresh.numberOfFullSites(), reused.numberOfFullSites());
+            Assert.assertEquals(fresh.numberOfClusters(), reused.numberOfClusters());
+            Assert.assertEquals(fresh.largestClusterSize(), reused.largestClusterSize());
+            for (int i = 1; i <= n; ++i) {
+                for (int j = 1; j <= n; ++j) {
+                    Assert.assertEquals(fresh.isFull(i, j), reused.isFull(i, j));
+                }
+            }
+            reused.reset();
+            Assert.assertFalse(reused.percolates());
+            Assert.assertEquals(0, reused.numberOfOpenSites());
+            Assert.assertEquals(0, reused.numberOfClusters());
+            Assert.assertFalse(reused.isOpen(1, 1));
+        }
+    }
+
+    @Test
+    public void poolReusesReleasedGrids() {
+        PercolationPool pool = new PercolationPool(UnionFindStrategy.WEIGHTED_QUICK_UNION, 1);
+        Percolation first = pool.acquire(5);
+        first.open(1, 1);
+        Percolation second = pool.acquire(5);
+        pool.release(first);
+        pool.release(second);
+        Assert.assertEquals(1, pool.idle(5));
+        Assert.assertEquals(0, pool.idle(6));
+        Percolation again = pool.acquire(5);
+        Assert.assertTrue(again == first);
+        Assert.assertFalse(again.isOpen(1, 1));
+        Assert.assertEquals(0, pool.idle(5));
+        Assert.assertTrue(pool.acquire(6) != first);
+    }
 }
@@ -0,0 +1,92 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class RunningStatsTest {
+
+    @Test
+    public void emptySummaryHasNoMean() {
+        RunningStats stats = new RunningStats();
+        Assert.assertEquals(0, stats.count());
+        Assert.assertTrue(Double.isNaN(stats.mean()));
+        Assert.assertTrue(Double.isNaN(stats.stddev()));
+        Assert.assertTrue(Double.isNaN(stats.quantile(0.5)));
+    }
+
+    @Test
+    public void summaryAgreesWithStdStats() {
+        double[] values = randomValues(1000, 1);
+        RunningStats stats = new RunningStats();
+        for (double x : values) {
+            stats.add(x);
+        }
+
+        Assert.assertEquals(values.length, stats.count());
+        Assert.assertEquals(StdStats.sum(values), stats.sum(), 1e-12);
+        Assert.assertEquals(StdStats.mean(values), stats.mean(), 1e-12);
+        Assert.assertEquals(StdStats.stddev(values), stats.stddev(), 1e-12);
+        Assert.assertEquals(StdStats.min(values), stats.min(), 0.0);
+        Assert.assertEquals(StdStats.max(values), stats.max(), 0.0);
+    }
+
+    @Test
+    public void mergedSummariesAgreeWithSingleSummary() {
+        double[] values = randomValues(1000, 2);
+        RunningStats all = new RunningStats();
+        RunningStats first = new RunningStats();
+        RunningStats second = new RunningStats();
+        for (int k = 0; k < values.length; ++k) {
+            all.add(values[k]);
+            if (k < 300) first.add(values[k]);
+            else         second.add(values[k]);
+        }
+        first.merge(second);
+        first.merge(new RunningStats());
+
+        Assert.assertEquals(all.count(), first.count());
+        Assert.assertEquals(all.sum(), first.sum(), 1e-12);
+        Assert.assertEquals(all.mean(), first.mean(), 1e-12);
+        Assert.assertEquals(all.stddev(), first.stddev(), 1e-12);
+        Assert.assertEquals(all.min(), first.min(), 0.0);
+        Assert.assertEquals(all.max(), first.max(), 0.0);
+        Assert.assertEquals(all.quantile(0.5), first.quantile(0.5), 1e-12);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void summariesOfDifferentRangesDoNotMerge() {
+        new RunningStats().merge(new RunningStats(0, 2, 1024));
+    }
+
+    @Test
+    public void quantilesAreWithinOneBin() {
+        int n = 10000;
+        RunningStats stats = new RunningStats(0, 1, 100);
+        for (int k = 0; k < n; ++k) {
+            stats.add((k + 0.5) / n);
+        }
+        for (double q = 0.05; q < 1; q += 0.1) {
+            Assert.assertEquals(q, stats.quantile(q), 0.01);
+        }
+        Assert.assertEquals(stats.min(), stats.quantile(0), 0.0);
+        Assert.assertEquals(stats.max(), stats.quantile(1), 0.0);
+    }
+
+    @Test
+    public void monitorFollowsPercolationStats() {
+        RunningStats monitor = new RunningStats();
+        PercolationStats ps = new PercolationStats(10, 100, UnionFindStrategy.PATH_HALVING, 5, 3, monitor);
+        Assert.assertEquals(100, monitor.count());
+        Assert.assertEquals(ps.mean(), monitor.mean(), 1e-12);
+        Assert.assertEquals(100, ps.statistics().count());
+    }
+
+    private double[] randomValues(int n, long seed) {
+        Random random = new Random(seed);
+        double[] values = new double[n];
+        for (int k = 0; k < n; ++k) {
+            values[k] = 0.59 + 0.05 * random.nextGaussian();
+        }
+        return values;
+    }
+}
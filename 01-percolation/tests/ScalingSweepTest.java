@@ -0,0 +1,64 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ScalingSweepTest {
+
+    @Test
+    public void everySizeReachesTheTargetAndTheFitIsNearTheThreshold() {
+        double halfWidth = 0.01;
+        ScalingSweep sweep = new ScalingSweep(new int[] {32, 8, 16}, halfWidth, 60000,
+                UnionFindStrategy.PATH_HALVING, PercolationStats.Estimator.PLAIN, 11, 2);
+        Assert.assertArrayEquals(new int[] {8, 16, 32}, sweep.sizes());
+        for (int N : sweep.sizes()) {
+            Assert.assertTrue(sweep.stats(N).halfWidth() <= halfWidth);
+        }
+        // stddev shrinks with N, so larger grids need fewer trials
+        Assert.assertTrue(sweep.stats(32).trials() < sweep.stats(8).trials());
+        // p_c = 0.5927...
+        Assert.assertEquals(0.5927, sweep.threshold(), 0.03);
+        Assert.assertTrue(sweep.thresholdError() > 0);
+    }
+
+    @Test
+    public void sizesDoNotDependOnEachOtherOrOnThreads() {
+        ScalingSweep expected = new ScalingSweep(new int[] {8, 16}, 0.02, 60000,
+                UnionFindStrategy.PATH_HALVING, PercolationStats.Estimator.PLAIN, 4, 1);
+        ScalingSweep sweep = new ScalingSweep(new int[] {8, 12, 16}, 0.02, 60000,
+                UnionFindStrategy.PATH_HALVING, PercolationStats.Estimator.PLAIN, 4, 3);
+        for (int N : expected.sizes()) {
+            Assert.assertEquals(expected.stats(N).trials(), sweep.stats(N).trials());
+            Assert.assertEquals(expected.stats(N).mean(), sweep.stats(N).mean(), 0.0);
+        }
+    }
+
+    @Test
+    public void fitSkipsSizesWithoutVariance() {
+        int[] sizes = {4, 8, 16};
+        PercolationStats[] stats = new PercolationStats[sizes.length];
+        for (int k = 0; k < sizes.length; ++k) {
+            stats[k] = new PercolationStats(sizes[k], 200, UnionFindStrategy.PATH_HALVING, k, 1);
+        }
+        double[] expected = ScalingSweep.fit(new int[] {8, 16},
+                                             new PercolationStats[] {stats[1], stats[2]});
+        // a single trial has no variance
+        stats[0] = new PercolationStats(4, 1, UnionFindStrategy.PATH_HALVING, 0, 1);
+        double[] fit = ScalingSweep.fit(sizes, stats);
+        for (int k = 0; k < fit.length; ++k) {
+            Assert.assertFalse(Double.isNaN(fit[k]));
+            Assert.assertEquals(expected[k], fit[k], 0.0);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void fitNeedsTwoSizesWithVariance() {
+        ScalingSweep.fit(new int[] {4, 8}, new PercolationStats[] {
+            new PercolationStats(4, 1, UnionFindStrategy.PATH_HALVING, 0, 1),
+            new PercolationStats(8, 100, UnionFindStrategy.PATH_HALVING, 1, 1)});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void needsTwoDistinctSizes() {
+        new ScalingSweep(new int[] {16, 16}, 0.01, 1000,
+                UnionFindStrategy.PATH_HALVING, PercolationStats.Estimator.PLAIN, 1, 1);
+    }
+}
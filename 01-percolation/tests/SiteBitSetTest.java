@@ -0,0 +1,44 @@
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SiteBitSetTest {
+
+    @Test
+    public void setReportsWhetherBitWasClear() {
+        SiteBitSet bits = new SiteBitSet(100);
+        assertFalse(bits.get(64));
+        assertTrue(bits.set(64));
+        assertFalse(bits.set(64));
+        assertTrue(bits.get(64));
+        assertEquals(1, bits.cardinality());
+    }
+
+    @Test
+    public void rangeQueriesAgreeWithBitSet() {
+        int size = 333;
+        Random random = new Random(11);
+        SiteBitSet bits = new SiteBitSet(size);
+        BitSet expected = new BitSet(size);
+        for (int k = 0; k < size / 3; ++k) {
+            int index = random.nextInt(size);
+            bits.set(index);
+            expected.set(index);
+        }
+
+        assertEquals(expected.cardinality(), bits.cardinality());
+        for (int from = 0; from <= size; from += 7) {
+            for (int to = from; to <= size; to += 5) {
+                assertEquals(expected.get(from, to).cardinality(), bits.cardinality(from, to));
+                int next = expected.nextSetBit(from);
+                if (next >= to) next = -1;
+                assertEquals(next, bits.nextSetBit(from, to));
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.SplittableRandom;
+
+public class SiteLayoutTest {
+
+    @Test
+    public void slotsAreDistinctAndInvertible() {
+        int[] sizes = {1, 2, 3, 31, 32, 33, 64, 100};
+        for (SiteLayout layout : SiteLayout.values()) {
+            for (int n : sizes) {
+                int slots = layout.slots(n);
+                Assert.assertTrue(slots >= n * n);
+                boolean[] used = new boolean[slots];
+                for (int row = 0; row < n; ++row) {
+                    for (int col = 0; col < n; ++col) {
+                        int slot = layout.slot(row, col, n);
+                        Assert.assertTrue(0 <= slot && slot < slots);
+                        Assert.assertFalse(used[slot]);
+                        used[slot] = true;
+                        Assert.assertEquals(row * n + col, layout.index(slot, n));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void mortonPadsToPowerOfTwo() {
+        Assert.assertEquals(64 * 64, SiteLayout.MORTON.slots(64));
+        Assert.assertEquals(128 * 128, SiteLayout.MORTON.slots(65));
+        Assert.assertEquals(1, SiteLayout.MORTON.slots(1));
+        Assert.assertEquals(96 * 96, SiteLayout.TILED.slots(65));
+    }
+
+    @Test
+    public void layoutsAnswerLikeRowMajor() {
+        int n = 45;
+        for (SiteLayout layout : SiteLayout.values()) {
+            Percolation rowMajor = new Percolation(n, UnionFindStrategy.PATH_HALVING);
+            Percolation other = new Percolation(n, UnionFindStrategy.PATH_HALVING, layout);
+            SitePermutation order = new SitePermutation(n * n, new SplittableRandom(18));
+            for (int k = 0; k < n * n * 6 / 10; ++k) {
+                int site = order.next();
+                rowMajor.openIndex(site);
+                other.openIndex(site);
+                Assert.assertEquals(rowMajor.percolates(), other.percolates());
+            }
+            Assert.assertEquals(rowMajor.largestClusterSize(), other.largestClusterSize());
+            Assert.assertEquals(rowMajor.sumOfSquaredClusterSizes(), other.sumOfSquaredClusterSizes());
+            for (int i = 1; i <= n; ++i) {
+                Assert.assertEquals(rowMajor.numberOfOpenSites(i), other.numberOfOpenSites(i));
+                Assert.assertEquals(rowMajor.nextOpenSite(i, 7), other.nextOpenSite(i, 7));
+                for (int j = 1; j <= n; ++j) {
+                    Assert.assertEquals(rowMajor.isOpen(i, j), other.isOpen(i, j));
+                    Assert.assertEquals(rowMajor.isFull(i, j), other.isFull(i, j));
+                    // roots are row-major indices of sites of the same cluster
+                    int root = other.cluster(i, j);
+                    if (root != -1) {
+                        Assert.assertEquals(rowMajor.cluster(i, j), rowMajor.cluster(root / n + 1, root % n + 1));
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+import org.junit.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SitePermutationTest {
+
+    @Test
+    public void everySiteIsProducedOnce() {
+        int n = 1000;
+        SitePermutation permutation = new SitePermutation(n, new SplittableRandom(1));
+        for (int round = 0; round < 3; ++round) {
+            boolean[] seen = new boolean[n];
+            for (int k = 0; k < n; ++k) {
+                assertTrue(permutation.hasNext());
+                int site = permutation.next();
+                assertFalse("site " + site + " produced twice", seen[site]);
+                seen[site] = true;
+            }
+            assertFalse(permutation.hasNext());
+            permutation.restart(new SplittableRandom(round));
+        }
+    }
+
+    @Test
+    public void resetDrawsTheOrderOfANewPermutation() {
+        int n = 200;
+        SitePermutation used = new SitePermutation(n, new SplittableRandom(2));
+        for (int k = 0; k < n / 2; ++k) {
+            used.next();
+        }
+        used.reset(new SplittableRandom(3));
+        SitePermutation fresh = new SitePermutation(n, new SplittableRandom(3));
+        for (int k = 0; k < n; ++k) {
+            assertEquals(fresh.next(), used.next());
+        }
+    }
+
+    @Test(expected = java.util.NoSuchElementException.class)
+    public void nextThrowsWhenExhausted() {
+        SitePermutation permutation = new SitePermutation(1, new SplittableRandom(1));
+        permutation.next();
+        permutation.next();
+    }
+
+    @Test
+    public void getReturnsTheSitesDrawnSoFar() {
+        SitePermutation permutation = new SitePermutation(10, new SplittableRandom(4));
+        int first = permutation.next();
+        int second = permutation.next();
+        assertEquals(first, permutation.get(0));
+        assertEquals(second, permutation.get(1));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void getThrowsPastTheSitesDrawn() {
+        SitePermutation permutation = new SitePermutation(10, new SplittableRandom(4));
+        permutation.next();
+        permutation.get(1);
+    }
+
+    @Test
+    public void permutationsOfThreeSitesAreEquallyLikely() {
+        int trials = 60000;
+        int[] counts = new int[27];
+        SitePermutation permutation = new SitePermutation(3, new SplittableRandom(5));
+        for (int t = 0; t < trials; ++t) {
+            int code = permutation.next() * 9 + permutation.next() * 3 + permutation.next();
+            counts[code]++;
+            // restart from the previous arrangement, as trials do
+            permutation.restart(new SplittableRandom(t));
+        }
+
+        int distinct = 0;
+        for (int count : counts) {
+            if (count == 0) continue;
+            ++distinct;
+            // expected 10000 each, standard deviation about 91
+            assertEquals(trials / 6.0, count, 500);
+        }
+        assertEquals(6, distinct);
+    }
+}
@@ -0,0 +1,106 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.SplittableRandom;
+
+public class UndoablePercolationTest {
+
+    private static void assertSameGrid(Percolation expected, UndoablePercolation actual, int n) {
+        Assert.assertEquals(expected.percolates(), actual.percolates());
+        Assert.assertEquals(expected.numberOfOpenSites(), actual.numberOfOpenSites());
+        for (int i = 1; i <= n; ++i) {
+            for (int j = 1; j <= n; ++j) {
+                Assert.assertEquals(expected.isOpen(i, j), actual.isOpen(i, j));
+                Assert.assertEquals(expected.isFull(i, j), actual.isFull(i, j));
+            }
+        }
+    }
+
+    @Test
+    public void rollbackRestoresPrefix() {
+        int n = 25;
+        SitePermutation order = new SitePermutation(n * n, new SplittableRandom(19));
+        int[] sites = new int[n * n];
+        for (int k = 0; k < sites.length; ++k) sites[k] = order.next();
+
+        int prefix = n * n / 2;
+        Percolation expected = new Percolation(n);
+        UndoablePercolation perc = new UndoablePercolation(n);
+        for (int k = 0; k < prefix; ++k) {
+            expected.openIndex(sites[k]);
+            perc.open(sites[k] / n + 1, sites[k] % n + 1);
+        }
+        int checkpoint = perc.checkpoint();
+
+        // several batches past the prefix, each undone
+        for (int batch = 0; batch < 3; ++batch) {
+            for (int k = prefix + batch; k < sites.length; k += 2) {
+                perc.open(sites[k] / n + 1, sites[k] % n + 1);
+            }
+            Assert.assertTrue(perc.percolates());
+            perc.rollback(checkpoint);
+            assertSameGrid(expected, perc, n);
+        }
+    }
+
+    @Test
+    public void nestedCheckpoints() {
+        UndoablePercolation perc = new UndoablePercolation(3);
+        perc.open(1, 1);
+        int first = perc.checkpoint();
+        perc.open(2, 1);
+        int second = perc.checkpoint();
+        perc.open(3, 1);
+        Assert.assertTrue(perc.percolates());
+        perc.rollback(second);
+        Assert.assertFalse(perc.percolates());
+        Assert.assertTrue(perc.isFull(2, 1));
+        perc.rollback(first);
+        Assert.assertFalse(perc.isOpen(2, 1));
+        Assert.assertEquals(1, perc.numberOfOpenSites());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cannotRollForward() {
+        UndoablePercolation perc = new UndoablePercolation(3);
+        perc.open(1, 1);
+        perc.rollback(2);
+    }
+
+    @Test
+    public void snapshotIsIndependent() {
+        UndoablePercolation perc = new UndoablePercolation(3);
+        perc.open(1, 2);
+        perc.open(2, 2);
+        UndoablePercolation copy = perc.snapshot();
+        perc.open(3, 2);
+        Assert.assertTrue(perc.percolates());
+        Assert.assertFalse(copy.percolates());
+        Assert.assertFalse(copy.isOpen(3, 2));
+
+        copy.open(3, 3);
+        Assert.assertFalse(perc.isOpen(3, 3));
+        Assert.assertFalse(copy.isFull(3, 3));
+        copy.open(2, 3);
+        Assert.assertTrue(copy.percolates());
+        Assert.assertEquals(0, copy.snapshot().checkpoint());
+    }
+
+    @Test
+    public void unionFindUndoesUnions() {
+        UndoableUnionFind uf = new UndoableUnionFind(8);
+        uf.union(0, 1);
+        uf.union(2, 3);
+        int checkpoint = uf.checkpoint();
+        uf.union(1, 3);
+        uf.union(4, 3);
+        Assert.assertEquals(5, uf.size(0));
+        Assert.assertEquals(4, uf.count());
+        uf.rollback(checkpoint);
+        Assert.assertEquals(6, uf.count());
+        Assert.assertFalse(uf.connected(0, 2));
+        Assert.assertTrue(uf.connected(2, 3));
+        Assert.assertEquals(2, uf.size(3));
+        Assert.assertEquals(1, uf.size(4));
+    }
+}
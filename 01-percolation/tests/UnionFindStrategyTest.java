@@ -0,0 +1,144 @@
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class UnionFindStrategyTest {
+
+    @Test
+    public void valuesAreNotConnectedAfterInitialization() {
+        int n = 10;
+        for (UnionFindStrategy strategy : UnionFindStrategy.values()) {
+            UnionFind uf = strategy.create(n);
+            assertEquals(strategy.name(), n, uf.count());
+            for (int i = 0; i < n; ++i) {
+                assertEquals(strategy.name(), i, uf.find(i));
+                for (int j = 0; j < n; ++j) {
+                    if (j != i) {
+                        assertFalse(strategy.name(), uf.connected(i, j));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void allValuesGetConnectedByChainOfUnions() {
+        int n = 100;
+        for (UnionFindStrategy strategy : UnionFindStrategy.values()) {
+            UnionFind uf = strategy.create(n);
+            for (int i = 1; i < n; ++i) {
+                uf.union(i - 1, i);
+            }
+            assertEquals(strategy.name(), 1, uf.count());
+            for (int i = 0; i < n; ++i) {
+                assertTrue(strategy.name(), uf.connected(0, i));
+            }
+        }
+    }
+
+    @Test
+    public void strategiesAgreeWithWeightedQuickUnionOnRandomUnions() {
+        int n = 500;
+        Random random = new Random(42);
+        int[] ps = new int[n / 2];
+        int[] qs = new int[n / 2];
+        for (int k = 0; k < ps.length; ++k) {
+            ps[k] = random.nextInt(n);
+            qs[k] = random.nextInt(n);
+        }
+
+        WeightedQuickUnionUF expected = new WeightedQuickUnionUF(n);
+        for (int k = 0; k < ps.length; ++k) {
+            expected.union(ps[k], qs[k]);
+        }
+
+        for (UnionFindStrategy strategy : UnionFindStrategy.values()) {
+            UnionFind uf = strategy.create(n);
+            for (int k = 0; k < ps.length; ++k) {
+                uf.union(ps[k], qs[k]);
+            }
+            assertEquals(strategy.name(), expected.count(), uf.count());
+            for (int k = 0; k < 2000; ++k) {
+                int p = random.nextInt(n);
+                int q = random.nextInt(n);
+                assertEquals(strategy.name(), expected.connected(p, q), uf.connected(p, q));
+            }
+            for (int p = 0; p < n; ++p) {
+                assertEquals(strategy.name(), expected.size(p), uf.size(p));
+            }
+        }
+    }
+
+    // a star of unions into one growing tree stays shallow only if every
+    // strategy hangs the lighter tree under the heavier one
+    @Test(timeout = 2000)
+    public void unionsIntoOneTreeKeepItShallow() {
+        int n = 200000;
+        for (UnionFindStrategy strategy : UnionFindStrategy.values()) {
+            UnionFind uf = strategy.create(n);
+            for (int i = 1; i < n; ++i) {
+                uf.union(0, i);
+            }
+            assertEquals(strategy.name(), 1, uf.count());
+            assertEquals(strategy.name(), n, uf.size(n - 1));
+        }
+    }
+
+    @Test
+    public void percolationGivesSameAnswersForEveryStrategy() {
+        int n = 20;
+        Random random = new Random(7);
+        int[] order = new int[n * n];
+        for (int k = 0; k < order.length; ++k) {
+            order[k] = k;
+        }
+        for (int k = order.length - 1; k > 0; --k) {
+            int r = random.nextInt(k + 1);
+            int tmp = order[k];
+            order[k] = order[r];
+            order[r] = tmp;
+        }
+
+        Percolation expected = new Percolation(n);
+        Percolation[] actual = new Percolation[UnionFindStrategy.values().length];
+        for (UnionFindStrategy strategy : UnionFindStrategy.values()) {
+            actual[strategy.ordinal()] = new Percolation(n, strategy);
+        }
+
+        for (int site : order) {
+            int i = site / n + 1;
+            int j = site % n + 1;
+            expected.open(i, j);
+            for (Percolation p : actual) {
+                p.open(i, j);
+                assertEquals(expected.percolates(), p.percolates());
+                assertEquals(expected.isFull(i, j), p.isFull(i, j));
+            }
+        }
+    }
+
+    @Test
+    public void resetIsolatesEverySite() {
+        int n = 50;
+        for (UnionFindStrategy strategy : UnionFindStrategy.values()) {
+            UnionFind uf = strategy.create(n);
+            for (int i = 1; i < n; i += 2) {
+                uf.union(i - 1, i);
+            }
+            uf.union(0, n - 1);
+            uf.reset();
+            assertEquals(strategy.name(), n, uf.count());
+            for (int i = 0; i < n; ++i) {
+                assertEquals(strategy.name(), i, uf.find(i));
+                assertEquals(strategy.name(), 1, uf.size(i));
+            }
+            uf.union(3, 4);
+            assertTrue(strategy.name(), uf.connected(3, 4));
+            assertFalse(strategy.name(), uf.connected(0, 1));
+        }
+    }
+}